@@ -21,6 +21,7 @@ import java.io.File;
 import org.eclipse.digitaltwin.aas4j.v3.model.Submodel;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 import com.softwareag.aasservice.data.models.DataElementType;
 import com.softwareag.aasservice.data.repositories.AASXDataRepository;
@@ -30,6 +31,7 @@ import com.softwareag.modelling.SubmodelTemplate;
 import com.softwareag.modelling.models.CarbonFootprintTemplate;
 
 @SpringBootApplication
+@EnableScheduling
 public class AasServiceApplication {
 
 	public static void main(String[] args) {
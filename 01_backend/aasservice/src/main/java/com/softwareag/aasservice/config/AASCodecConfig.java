@@ -0,0 +1,67 @@
+/**
+*	Copyright 2025 Software GmbH (previously Software AG)
+*    
+*    Licensed under the Apache License, Version 2.0 (the "License");
+*    you may not use this file except in compliance with the License.
+*    You may obtain a copy of the License at
+*    
+*      http://www.apache.org/licenses/LICENSE-2.0
+*    
+*    Unless required by applicable law or agreed to in writing, software
+*   distributed under the License is distributed on an "AS IS" BASIS,
+*    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+*    See the License for the specific language governing permissions and
+*    limitations under the License.
+*/
+
+package com.softwareag.aasservice.config;
+
+import org.eclipse.digitaltwin.aas4j.v3.dataformat.json.JsonSerializer;
+import org.eclipse.digitaltwin.aas4j.v3.dataformat.xml.XmlDeserializer;
+import org.eclipse.digitaltwin.aas4j.v3.dataformat.xml.XmlSerializer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.softwareag.aasservice.data.repositories.AASCodecs;
+import com.softwareag.aasservice.data.repositories.AASXDataRepository;
+import com.softwareag.aasservice.data.repositories.JsonDataRepository;
+import com.softwareag.aasservice.data.repositories.SmileDataRepository;
+
+/**
+ * Provides the shared aas4j codecs and the data repositories using them, so
+ * that no mapper is built while a request is handled.
+ */
+@Configuration
+public class AASCodecConfig {
+
+    @Bean
+    public JsonSerializer jsonSerializer() {
+        return AASCodecs.JSON_SERIALIZER;
+    }
+
+    @Bean
+    public XmlDeserializer xmlDeserializer() {
+        return AASCodecs.XML_DESERIALIZER;
+    }
+
+    @Bean
+    public XmlSerializer xmlSerializer() {
+        return AASCodecs.XML_SERIALIZER;
+    }
+
+    @Bean
+    public SmileDataRepository smileDataRepository() {
+        return new SmileDataRepository(AASCodecs.SMILE_MAPPER);
+    }
+
+    @Bean
+    public JsonDataRepository jsonDataRepository(JsonSerializer jsonSerializer) {
+        return new JsonDataRepository(jsonSerializer, AASCodecs.JSON_MAPPER);
+    }
+
+    @Bean
+    public AASXDataRepository aasxDataRepository(XmlDeserializer xmlDeserializer, XmlSerializer xmlSerializer) {
+        return new AASXDataRepository(xmlDeserializer, xmlSerializer);
+    }
+
+}
@@ -0,0 +1,46 @@
+/**
+*	Copyright 2025 Software GmbH (previously Software AG)
+*    
+*    Licensed under the Apache License, Version 2.0 (the "License");
+*    you may not use this file except in compliance with the License.
+*    You may obtain a copy of the License at
+*    
+*      http://www.apache.org/licenses/LICENSE-2.0
+*    
+*    Unless required by applicable law or agreed to in writing, software
+*   distributed under the License is distributed on an "AS IS" BASIS,
+*    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+*    See the License for the specific language governing permissions and
+*    limitations under the License.
+*/
+
+package com.softwareag.aasservice.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class PaginationConfig {
+
+    @Value("${aas.pagination.default-size:50}")
+    private int defaultPageSize;
+
+    @Value("${aas.pagination.max-size:500}")
+    private int maxPageSize;
+
+    /**
+     * Determines the size of a keyset paginated page.
+     *
+     * @param limit The requested number of items, null for the default size.
+     * @return The page size, at most the configured maximum.
+     * @throws IllegalArgumentException If the requested limit is not positive.
+     */
+    public int getPageSize(Integer limit) {
+        if (limit == null)
+            return Math.min(defaultPageSize, maxPageSize);
+        if (limit < 1)
+            throw new IllegalArgumentException("Invalid limit: " + limit);
+        return Math.min(limit, maxPageSize);
+    }
+
+}
@@ -16,44 +16,66 @@
 
 package com.softwareag.aasservice.controller;
 
-import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.ui.Model;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.http.MediaType;
 
+import com.softwareag.aasservice.config.PaginationConfig;
 import com.softwareag.aasservice.data.AASDataTransferObject;
 import com.softwareag.aasservice.data.AASExportDataTransfer;
+import com.softwareag.aasservice.data.AASVersionMetadata;
 import com.softwareag.aasservice.data.DataType;
+import com.softwareag.aasservice.data.PropertyPredicate;
+import com.softwareag.aasservice.data.VersionConflict;
 import com.softwareag.aasservice.data.repositories.AASXDataRepository;
+import com.softwareag.aasservice.data.repositories.AASXPackage;
 import com.softwareag.aasservice.data.repositories.DataRepository;
 import com.softwareag.aasservice.data.repositories.JsonDataRepository;
+import com.softwareag.aasservice.data.repositories.SupplementaryFile;
 import com.softwareag.aasservice.mysql.dao.AASUploadRepository;
+import com.softwareag.aasservice.mysql.dao.AASUploadRepository.ModificationState;
 import com.softwareag.aasservice.mysql.entity.AASUpload;
+import com.softwareag.aasservice.service.AASDeserializationService;
+import com.softwareag.aasservice.service.AASProjectionService;
+import com.softwareag.aasservice.service.AASUploadDataService;
+import com.softwareag.aasservice.service.AASUploadService;
+import com.softwareag.aasservice.service.AASVersionService;
 import com.softwareag.aasservice.service.DownloadService;
+import com.softwareag.aasservice.service.EnvironmentCache;
 import com.softwareag.aasservice.service.EnvironmentService;
 import com.softwareag.aasservice.service.AASUpload.AASUploadDeserializier;
 import com.softwareag.aasservice.service.AASUpload.AASUploadSerializer;
 import com.softwareag.aasservice.utils.Constants;
+import com.softwareag.aasservice.utils.KeysetCursor;
+import com.softwareag.aasservice.utils.UploadETag;
 
 import jakarta.servlet.http.HttpServletResponse;
 
@@ -66,53 +88,259 @@ import org.apache.tomcat.util.http.fileupload.impl.FileSizeLimitExceededExceptio
 @RequestMapping("/api")
 public class ProductController {
 
+    @Value("${spring.servlet.multipart.max-file-size:1MB}")
+    private DataSize maxFileSize;
+
     @Autowired
     private AASUploadRepository repository;
 
+    @Autowired
+    private AASUploadService uploadService;
+
+    @Autowired
+    private AASUploadDataService uploadDataService;
+
+    @Autowired
+    private AASProjectionService projectionService;
+
+    @Autowired
+    private PaginationConfig paginationConfig;
+
+    @Autowired
+    private AASDeserializationService deserializationService;
+
+    @Autowired
+    private EnvironmentCache environmentCache;
+
+    @Autowired
+    private AASVersionService versionService;
+
+    @Autowired
+    private JsonDataRepository jsonDataRepository;
+
+    @Autowired
+    private AASXDataRepository aasxDataRepository;
+
     /**
-     * Retrieves all AAS (Asset Administration Shell) data.
+     * Retrieves all AAS (Asset Administration Shell) data. If a cursor or a
+     * limit is given, only one page ordered by id is returned together with the
+     * cursor of the next page. The response carries an ETag and Last-Modified
+     * header derived from all uploads, and a matching If-None-Match or
+     * If-Modified-Since is answered with HttpStatus.NOT_MODIFIED without
+     * reading any AAS. While the projection of any upload is outdated, the
+     * headers are left out and the list is always returned.
      * 
-     * @return List of AASDataTransferObject representing AAS data.
+     * @param cursor    The cursor of the requested page (optional).
+     * @param limit     The maximum number of AAS on the page (optional).
+     * @param submodels The idShorts of the submodels to include, e.g.
+     *                  "Nameplate,CarbonFootprint" (optional, default all).
+     * @param request   The request, used for its conditional headers.
+     * @return List of AASDataTransferObject representing AAS data, or a
+     *         CursorPage of them if a page was requested.
      */
     @GetMapping("/aas")
-    public List<AASDataTransferObject> getAllAAS() {
-        List<AASUpload> loadedAAS = repository.findAll();
-        List<AASDataTransferObject> transferableAAS = new ArrayList<>();
-        loadedAAS.forEach(upload -> {
-            EnvironmentService envService = AASUploadDeserializier.deserialize(upload.getUpload(),
-                    DataType.getDataTypeByString(upload.getType()));
-            transferableAAS.add(envService.createAASDataTransferObject(upload.getSender()));
-        });
-        return transferableAAS;
+    public ResponseEntity<?> getAllAAS(@RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) List<String> submodels, WebRequest request) {
+        if (!isValidSubmodelSelection(submodels))
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Unknown submodel");
+
+        // the list is read from the projections, so it is only cacheable once
+        // the AASProjectionRefresher has brought all of them up to date
+        if (repository.countWithOutdatedProjection() == 0
+                && isNotModified(request, repository.findModificationState()))
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(CacheControl.noCache()).build();
+
+        if (cursor == null && limit == null)
+            return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(projectionService.getAll(submodels));
+
+        try {
+            return ResponseEntity.ok().cacheControl(CacheControl.noCache())
+                    .body(projectionService.getPage(KeysetCursor.decode(cursor),
+                            paginationConfig.getPageSize(limit), submodels));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Invalid cursor or limit");
+        }
+    }
 
+    /**
+     * Streams all AAS (Asset Administration Shell) data as newline-delimited
+     * JSON. Each line is one AASDataTransferObject, written as soon as it is
+     * read from the database.
+     * 
+     * @param submodels The idShorts of the submodels to include (optional,
+     *                  default all).
+     * @return ResponseEntity streaming the AAS data.
+     */
+    @GetMapping(value = "/aas/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllAAS(
+            @RequestParam(required = false) List<String> submodels) {
+        if (!isValidSubmodelSelection(submodels))
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+
+        StreamingResponseBody body = out -> projectionService.writeAll(out, submodels);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
     }
 
     /**
-     * Retrieves AAS (Asset Administration Shell) data by ID.
+     * Retrieves AAS (Asset Administration Shell) data by ID. The response
+     * carries an ETag and Last-Modified header of the AAS, and a matching
+     * If-None-Match or If-Modified-Since is answered with
+     * HttpStatus.NOT_MODIFIED without reading the AAS.
      * 
-     * @param aas_url The ID of the AAS.
+     * @param aas_url   The ID of the AAS.
+     * @param submodels The idShorts of the submodels to include (optional,
+     *                  default all).
+     * @param request   The request, used for its conditional headers.
      * @return ResponseEntity containing the AAS data if found, otherwise returns
      *         HttpStatus.NOT_FOUND.
      */
     @GetMapping("/aas/get")
-    public ResponseEntity<List<AASDataTransferObject>> getAASById(@RequestParam String aas_url) {
+    public ResponseEntity<List<AASDataTransferObject>> getAASById(@RequestParam String aas_url,
+            @RequestParam(required = false) List<String> submodels, WebRequest request) {
+        if (!isValidSubmodelSelection(submodels))
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+
+        ModificationState modificationState = repository.findModificationStateByAssetId(aas_url);
+        if (modificationState.getCount() == 0)
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
 
-        List<AASUpload> loadedAAS = repository.findByAssetId(aas_url);
-        List<AASDataTransferObject> transferableAAS = new ArrayList<>();
-        loadedAAS.forEach(upload -> {
-            EnvironmentService envService = AASUploadDeserializier.deserialize(upload.getUpload(),
-                    DataType.getDataTypeByString(upload.getType()));
-            transferableAAS.add(envService.createAASDataTransferObject(upload.getSender()));
-        });
+        // the ETag of a single AAS is the one a submission has to match
+        String eTag = modificationState.getCount() == 1
+                ? UploadETag.of(modificationState.getId(), modificationState.getVersion())
+                : null;
+        if (isNotModified(request, modificationState, eTag))
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(CacheControl.noCache()).build();
+
+        List<AASDataTransferObject> transferableAAS = projectionService.getByAssetId(aas_url, submodels);
 
         if (!transferableAAS.isEmpty()) {
-            return new ResponseEntity<>(transferableAAS, HttpStatus.OK);
+            return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(transferableAAS);
         } else {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
 
     }
 
+    /**
+     * Retrieves all AAS (Asset Administration Shell) data whose property
+     * values match all given predicates, e.g. "CarbonFootprint.PCFCO2eq>2.5"
+     * or "Nameplate.ManufacturerName=ACME". The predicates are answered by the
+     * property index without reading any AAS. Values longer than 255
+     * characters, e.g. long descriptions, are not indexed, so no predicate
+     * matches them and "!=" matches every AAS having only such values.
+     * 
+     * @param submodels The idShorts of the submodels to include (optional,
+     *                  default all).
+     * @param request   The request, whose parameters "q" are the predicates,
+     *                  see PropertyPredicate.
+     * @return List of AASDataTransferObject of the matching AAS, or
+     *         HttpStatus.BAD_REQUEST if a predicate is invalid.
+     */
+    @GetMapping("/aas/search")
+    public ResponseEntity<?> searchAAS(@RequestParam(required = false) List<String> submodels,
+            WebRequest request) {
+        if (!isValidSubmodelSelection(submodels))
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Unknown submodel");
+
+        // read as they are, a List parameter would be split at the commas of the values
+        String[] expressions = request.getParameterValues("q");
+        if (expressions == null)
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("No predicate given");
+
+        List<PropertyPredicate> predicates = new ArrayList<>();
+        try {
+            for (String expression : expressions)
+                predicates.add(PropertyPredicate.parse(expression));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+
+        return ResponseEntity.ok(projectionService.search(predicates, submodels));
+    }
+
+    /**
+     * Retrieves the statistics of the cache of parsed AAS environments.
+     * 
+     * @return The number of entries, retained bytes, hits, misses and
+     *         evictions of the cache.
+     */
+    @GetMapping("/aas/cache")
+    public ResponseEntity<EnvironmentCache.Statistics> getEnvironmentCacheStatistics() {
+        return ResponseEntity.ok(environmentCache.getStatistics());
+    }
+
+    /**
+     * Retrieves the version history of an AAS (Asset Administration Shell).
+     * 
+     * @param aas_url The ID of the AAS.
+     * @return ResponseEntity containing the versions of the AAS, oldest first,
+     *         or HttpStatus.NOT_FOUND if the AAS has no history.
+     */
+    @GetMapping("/aas/history")
+    public ResponseEntity<List<AASVersionMetadata>> getAASHistory(@RequestParam String aas_url) {
+        List<AASVersionMetadata> versions = versionService.getVersions(aas_url);
+        if (versions.isEmpty())
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        return ResponseEntity.ok(versions);
+    }
+
+    /**
+     * Retrieves a version of an AAS (Asset Administration Shell) from its
+     * history.
+     * 
+     * @param aas_url The ID of the AAS.
+     * @param version The version number, starting at 1.
+     * @return ResponseEntity containing the environment of the version as AAS
+     *         JSON, or HttpStatus.NOT_FOUND if the version does not exist.
+     */
+    @GetMapping(value = "/aas/history/version", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<String> getAASVersion(@RequestParam String aas_url, @RequestParam int version) {
+        String environment = versionService.getVersion(aas_url, version);
+        if (environment == null)
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        return ResponseEntity.ok(environment);
+    }
+
+    /**
+     * Retrieves a supplementary file of an AAS (Asset Administration Shell)
+     * stored as AASX package, e.g. the document of a File element. The file is
+     * streamed from the stored package without being loaded as a whole.
+     * 
+     * @param aas_url The ID of the AAS.
+     * @param path    The path of the file in the package, e.g.
+     *                "/aasx/files/manual.pdf".
+     * @return ResponseEntity streaming the file, or HttpStatus.NOT_FOUND if the
+     *         AAS has no such file.
+     */
+    @GetMapping("/aas/file")
+    public ResponseEntity<StreamingResponseBody> getSupplementaryFile(@RequestParam String aas_url,
+            @RequestParam String path) {
+        List<AASUpload> aasUploads = repository.findWithUploadDataByAssetId(aas_url);
+        if (aasUploads.size() != 1 || !DataType.AASX.getFormatString().equals(aasUploads.get(0).getType()))
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+
+        SupplementaryFile file;
+        try {
+            ByteBuffer aasx = uploadDataService.map(aasUploads.get(0));
+            file = aasx == null ? null : AASXPackage.read(aasx).getSupplementaryFile(path);
+        } catch (IOException e) {
+            System.err.println("Error: The AASX package of AAS " + aas_url + " could not be read.");
+            e.printStackTrace();
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+        if (file == null)
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+
+        MediaType contentType;
+        try {
+            contentType = MediaType.parseMediaType(file.getContentType());
+        } catch (InvalidMediaTypeException e) {
+            contentType = MediaType.APPLICATION_OCTET_STREAM;
+        }
+        return ResponseEntity.ok().contentType(contentType).contentLength(file.getSize()).body(file::transferTo);
+    }
+
     /**
      * Deletes an AAS (Asset Administration Shell) entry by ID.
      * 
@@ -122,25 +350,38 @@ public class ProductController {
      */
     @DeleteMapping("/aas/delete")
     public ResponseEntity<String> deleteAAS(@RequestParam String aas_url) {
-        repository.deleteByAssetId(aas_url);
+        uploadService.deleteByAssetId(aas_url);
         return ResponseEntity.ok("Success: AAS with ID " + aas_url + " deleted");
     }
 
     /**
-     * Submits AAS (Asset Administration Shell) data.
+     * Submits AAS (Asset Administration Shell) data. An existing AAS is only
+     * overwritten if it was not modified in the meantime: with an If-Match
+     * header, the header has to match the ETag of the stored AAS as returned
+     * by "/aas/get", and concurrent submissions are rejected by the version
+     * check of the database. A conflict is answered with HttpStatus.CONFLICT
+     * and the current version of the AAS.
+     *
+     * The AAS is stored as AASX package if it has supplementary files, e.g.
+     * those of the package stored so far, and in Smile otherwise.
      * 
      * @param submissionData The AASDataTransferObject representing the submitted
      *                       AAS data.
-     * @return ResponseEntity indicating success upon submission.
+     * @param ifMatch        The ETag of the AAS the submission is based on
+     *                       (optional).
+     * @return ResponseEntity indicating success upon submission, carrying the
+     *         ETag of the new version.
      */
     @PostMapping("/aas/submission")
-    public ResponseEntity<String> submission(@RequestBody AASDataTransferObject submissionData) {
+    public ResponseEntity<?> submission(@RequestBody AASDataTransferObject submissionData,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
 
         EnvironmentService submittedEnvironmentService = submissionData.toEnvironmentService();
+        String assetId = submittedEnvironmentService.getAssetID();
 
         AASUpload aasUpload = null;
 
-        List<AASUpload> aasUploads = repository.findByAssetId(submittedEnvironmentService.getAssetID());
+        List<AASUpload> aasUploads = repository.findByAssetId(assetId);
 
         if (aasUploads.size() == 0) {
 
@@ -154,12 +395,36 @@ public class ProductController {
             return ResponseEntity.ok("Something went wrong loading the AASUpload!");
         }
 
-        aasUpload = AASUploadSerializer.serialize(submittedEnvironmentService, DataType.AASX,
+        if (ifMatch != null && !UploadETag.matches(ifMatch, aasUpload.getId() == null ? null : aasUpload))
+            return versionConflict(assetId);
+
+        // the files of the stored package are kept, they are referenced by the File elements of the AAS
+        List<SupplementaryFile> supplementaryFiles;
+        try {
+            supplementaryFiles = getSupplementaryFiles(aasUpload);
+        } catch (IOException e) {
+            System.err.println("Error: The AASX package of AAS " + assetId + " could not be read.");
+            e.printStackTrace();
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+        supplementaryFiles.addAll(submittedEnvironmentService.getSupplementaryFiles());
+        submittedEnvironmentService.setSupplementaryFiles(supplementaryFiles);
+
+        // the supplementary files of a package can only be kept in a package
+        DataType storedType = supplementaryFiles.isEmpty() ? DataType.SMILE : DataType.AASX;
+        aasUpload = AASUploadSerializer.serialize(submittedEnvironmentService, storedType,
                 submissionData.getSender(),
                 aasUpload);
-        repository.save(aasUpload);
 
-        return ResponseEntity.ok().build();
+        AASUpload savedUpload;
+        try {
+            savedUpload = uploadService.save(aasUpload, submittedEnvironmentService);
+        } catch (OptimisticLockingFailureException | DataIntegrityViolationException e) {
+            // saved concurrently, or created concurrently for a new assetId
+            return versionConflict(assetId);
+        }
+
+        return ResponseEntity.ok().eTag(UploadETag.of(savedUpload)).build();
     }
 
     /**
@@ -174,7 +439,6 @@ public class ProductController {
     public ResponseEntity<String> importAAS(Model model, @RequestParam("file") MultipartFile file) {
         if (!file.isEmpty()) {
             try {
-                File importedFile = convertMultipartFileToFile(file);
                 String fileExtension = file.getOriginalFilename()
                         .substring(file.getOriginalFilename().lastIndexOf(".") + 1);
 
@@ -183,11 +447,12 @@ public class ProductController {
                             .body("Invalid File format");
                 }
 
-                DataRepository dataRepository = fileExtension.equals("json") ? new JsonDataRepository()
-                        : new AASXDataRepository();
+                DataRepository dataRepository = fileExtension.equals("json") ? jsonDataRepository
+                        : aasxDataRepository;
 
+                // read from the request, the package of the supplementary files must not change
                 EnvironmentService environmentService = dataRepository
-                        .read(importedFile);
+                        .read(file.getBytes());
 
                 String importedAssetID = environmentService.getAssetID();
 
@@ -199,14 +464,17 @@ public class ProductController {
 
                 }
 
-                AASUpload aasUpload = AASUploadSerializer.serialize(environmentService, DataType.AASX,
+                // the supplementary files of a package can only be kept in a package
+                DataType storedType = environmentService.getSupplementaryFiles().isEmpty() ? DataType.SMILE
+                        : DataType.AASX;
+                AASUpload aasUpload = AASUploadSerializer.serialize(environmentService, storedType,
                         Constants.MASTER);
-                repository.save(aasUpload);
+                uploadService.save(aasUpload, environmentService);
 
                 return ResponseEntity.status(HttpStatus.OK).body("File uploaded successfully");
             } catch (FileSizeLimitExceededException e) {
                 return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                        .body("File exceeds its maximum permitted size of 1048576 bytes");
+                        .body("File exceeds its maximum permitted size of " + maxFileSize.toBytes() + " bytes");
             } catch (Exception ex) {
                 return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                         .body("File upload failed.");
@@ -217,7 +485,9 @@ public class ProductController {
     }
 
     /**
-     * Exports selected AAS (Asset Administration Shell) data.
+     * Exports selected AAS (Asset Administration Shell) data. AAS stored in
+     * the export format are streamed from their blob store as they are stored,
+     * the others are converted.
      * 
      * @param exportData The AASExportDataTransfer object containing export details.
      * @param response   The HttpServletResponse to handle the response.
@@ -227,40 +497,51 @@ public class ProductController {
     public void exportAAS(@RequestBody AASExportDataTransfer exportData, HttpServletResponse response) {
         String filenames = "";
 
-        DataRepository dataRepository = (exportData.getExportFormat().equals("json")) ? new JsonDataRepository()
-                : new AASXDataRepository();
+        DataRepository dataRepository = (exportData.getExportFormat().equals("json")) ? jsonDataRepository
+                : aasxDataRepository;
 
+        List<AASUpload> loadedAAS = new ArrayList<>();
         for (String assetId : exportData.getSelectedItem()) {
-            List<AASUpload> loadedAAS = repository.findByAssetId(assetId);
+            loadedAAS.addAll(repository.findWithUploadDataByAssetId(assetId));
+        }
 
-            for (AASUpload upload : loadedAAS) {
-                EnvironmentService envService = AASUploadDeserializier.deserialize(upload.getUpload(),
-                        DataType.getDataTypeByString(upload.getType()));
+        String exportFormat = (exportData.getExportFormat().equals("json")) ? "json" : "aasx";
 
-                String filename = envService.getAssetIDShort();
-                String fileExtension = (exportData.getExportFormat().equals("json")) ? ".json" : ".aasx";
-                filename += fileExtension;
-                filenames += filename.toString() + ' ';
+        // uploads stored in the export format are sent as stored, only the others are converted
+        List<AASUpload> convertedAAS = loadedAAS.stream()
+                .filter(aasUpload -> !exportFormat.equals(aasUpload.getType())).toList();
+        Iterator<EnvironmentService> envServices = deserializationService.deserializeAll(convertedAAS).iterator();
 
-                try {
-                    Path tempFilePath = Paths.get(filename);
-                    dataRepository.write(envService, tempFilePath.toString());
-                    response.setContentType(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+        for (AASUpload aasUpload : loadedAAS) {
 
-                    byte[] fileBytes = Files.readAllBytes(tempFilePath);
+            boolean stored = exportFormat.equals(aasUpload.getType());
+            EnvironmentService envService = stored ? null : envServices.next();
+            if (!stored && envService == null) {
+                // a broken upload must not fail the export of the others
+                System.err.println("Error: AAS " + aasUpload.getAssetId() + " could not be exported.");
+                continue;
+            }
 
-                    response.addHeader("filenames", filenames);
+            String filename = stored ? getAssetIDShort(aasUpload) : envService.getAssetIDShort();
+            String fileExtension = "." + exportFormat;
+            filename += fileExtension;
+            filenames += filename.toString() + ' ';
 
-                    response.getOutputStream().write(fileBytes);
+            try {
+                response.setContentType(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+                response.addHeader("filenames", filenames);
 
+                if (stored) {
+                    uploadDataService.transferTo(aasUpload, response.getOutputStream());
                     response.flushBuffer();
-
-                    Files.deleteIfExists(tempFilePath);
-                } catch (IOException e) {
-                    e.printStackTrace();
-                    // Handle exception
+                    continue;
                 }
 
+                dataRepository.write(envService, response.getOutputStream());
+                response.flushBuffer();
+            } catch (IOException e) {
+                e.printStackTrace();
+                // Handle exception
             }
 
         }
@@ -268,18 +549,74 @@ public class ProductController {
     }
 
     /**
-     * Converts a MultipartFile to a File.
+     * Retrieves the idShort of the AAS of a stored upload from its projection,
+     * without deserializing the upload.
      * 
-     * @param multipartFile The MultipartFile to convert.
-     * @return The converted File.
-     * @throws IOException If an I/O error occurs.
+     * @param aasUpload The stored AASUpload.
+     * @return The idShort of the AAS, or its assetId if there is no projection.
      */
-    private File convertMultipartFileToFile(MultipartFile multipartFile) throws IOException {
-        File file = new File(multipartFile.getOriginalFilename());
-        try (FileOutputStream fos = new FileOutputStream(file)) {
-            fos.write(multipartFile.getBytes());
-        }
-        return file;
+    /**
+     * @param aasUpload The AASUpload, which may not be saved yet.
+     * @return The supplementary files of the stored AASX package of the
+     *         upload, an empty list if the upload is stored in another format.
+     * @throws IOException If the stored package cannot be read.
+     */
+    private List<SupplementaryFile> getSupplementaryFiles(AASUpload aasUpload) throws IOException {
+        if (aasUpload.getId() == null || !DataType.AASX.getFormatString().equals(aasUpload.getType()))
+            return new ArrayList<>();
+
+        ByteBuffer aasx = uploadDataService.map(aasUpload);
+        return aasx == null ? new ArrayList<>() : AASXPackage.read(aasx).getSupplementaryFiles();
+    }
+
+    private String getAssetIDShort(AASUpload aasUpload) {
+        List<AASDataTransferObject> transferObjects = projectionService.getByAssetId(aasUpload.getAssetId(),
+                List.of());
+        return transferObjects.isEmpty() ? aasUpload.getAssetId() : transferObjects.get(0).getAssetIDshort();
+    }
+
+    /**
+     * Checks the conditional headers of the request against the state of the
+     * requested uploads. The ETag and Last-Modified header are added to the
+     * response in any case.
+     * 
+     * @param request           The request.
+     * @param modificationState The latest lastEditDate and number of the
+     *                          requested uploads.
+     * @return True if the client already has the current representation.
+     */
+    private boolean isNotModified(WebRequest request, ModificationState modificationState) {
+        return isNotModified(request, modificationState, null);
+    }
+
+    private boolean isNotModified(WebRequest request, ModificationState modificationState, String eTag) {
+        long lastModified = modificationState.getLastEditDate() == null ? -1
+                : modificationState.getLastEditDate().getTime();
+        if (eTag == null)
+            eTag = "\"" + modificationState.getCount() + "-" + Long.toHexString(lastModified) + "\"";
+        return request.checkNotModified(eTag, lastModified);
+    }
+
+    private ResponseEntity<VersionConflict> versionConflict(String assetId) {
+        ModificationState modificationState = repository.findModificationStateByAssetId(assetId);
+        if (modificationState.getCount() != 1)
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(new VersionConflict("The AAS was modified by another submission!", null, null));
+
+        String currentETag = UploadETag.of(modificationState.getId(), modificationState.getVersion());
+        return ResponseEntity.status(HttpStatus.CONFLICT).eTag(currentETag)
+                .body(new VersionConflict("The AAS was modified by another submission!",
+                        modificationState.getVersion(), currentETag));
+    }
+
+    /**
+     * Checks that only known submodels are requested.
+     * 
+     * @param submodels The requested submodel idShorts, null for all.
+     * @return True if all requested submodels are known.
+     */
+    private boolean isValidSubmodelSelection(List<String> submodels) {
+        return submodels == null || AASDataTransferObject.SUBMODEL_ID_SHORTS.containsAll(submodels);
     }
 
     /**
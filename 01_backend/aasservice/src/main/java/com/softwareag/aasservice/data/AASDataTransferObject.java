@@ -17,6 +17,7 @@
 package com.softwareag.aasservice.data;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.softwareag.aasservice.data.models.DataElementType;
 import com.softwareag.aasservice.data.repositories.AASXDataRepository;
@@ -28,11 +29,15 @@ import com.softwareag.aasservice.utils.Constants;
 import lombok.Data;
 
 import java.io.File;
+import java.util.Collection;
 import java.util.List;
 
 @Data
 public class AASDataTransferObject {
 
+        public static final List<String> SUBMODEL_ID_SHORTS = List.of("Nameplate", "TechnicalData",
+                        "CarbonFootprint");
+
         @JsonProperty("sender")
         private String sender;
 
@@ -46,6 +51,7 @@ public class AASDataTransferObject {
         private Submodels submodels;
 
         @Data
+        @JsonInclude(JsonInclude.Include.NON_NULL)
         public static class Submodels {
                 @JsonProperty("Nameplate")
                 private Nameplate nameplate;
@@ -209,6 +215,34 @@ public class AASDataTransferObject {
                 private String tcfHandoverLongitude;
         }
 
+        /**
+         * Creates a copy which only contains the requested submodels. The
+         * submodels themselves are shared with this object.
+         *
+         * @param submodelIdShorts The idShorts of the requested submodels, null
+         *                         for all submodels.
+         * @return The copy with the requested submodels.
+         */
+        public AASDataTransferObject selectSubmodels(Collection<String> submodelIdShorts) {
+                if (submodelIdShorts == null || submodels == null)
+                        return this;
+
+                Submodels selectedSubmodels = new Submodels();
+                if (submodelIdShorts.contains("Nameplate"))
+                        selectedSubmodels.setNameplate(submodels.getNameplate());
+                if (submodelIdShorts.contains("TechnicalData"))
+                        selectedSubmodels.setTechnicalData(submodels.getTechnicalData());
+                if (submodelIdShorts.contains("CarbonFootprint"))
+                        selectedSubmodels.setCarbonFootprint(submodels.getCarbonFootprint());
+
+                AASDataTransferObject selection = new AASDataTransferObject();
+                selection.setSender(sender);
+                selection.setAssetIDshort(assetIDshort);
+                selection.setAssetID(assetID);
+                selection.setSubmodels(selectedSubmodels);
+                return selection;
+        }
+
         public EnvironmentService toEnvironmentService() {
                 DataRepository aasxDataRepository = new AASXDataRepository();
                 EnvironmentService environmentService = aasxDataRepository
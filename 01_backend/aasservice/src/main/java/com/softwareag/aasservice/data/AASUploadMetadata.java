@@ -0,0 +1,49 @@
+/**
+*	Copyright 2025 Software GmbH (previously Software AG)
+*    
+*    Licensed under the Apache License, Version 2.0 (the "License");
+*    you may not use this file except in compliance with the License.
+*    You may obtain a copy of the License at
+*    
+*      http://www.apache.org/licenses/LICENSE-2.0
+*    
+*    Unless required by applicable law or agreed to in writing, software
+*   distributed under the License is distributed on an "AS IS" BASIS,
+*    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+*    See the License for the specific language governing permissions and
+*    limitations under the License.
+*/
+
+package com.softwareag.aasservice.data;
+
+import java.util.Date;
+
+import com.softwareag.aasservice.mysql.entity.AASUpload;
+
+import lombok.Data;
+
+/**
+ * The metadata of an AASUpload without its stored data. The type is the
+ * exchange format of the stored data, e.g. "json" for data stored in Smile.
+ */
+@Data
+public class AASUploadMetadata {
+    public AASUploadMetadata(AASUpload upload) {
+        this.id = upload.getId();
+        this.creationDate = upload.getCreationDate();
+        this.lastEditDate = upload.getLastEditDate();
+        this.assetId = upload.getAssetId();
+        this.sender = upload.getSender();
+        // the internal formats are reported as the format AAS are exchanged in
+        DataType dataType = DataType.getDataTypeByString(upload.getType());
+        this.type = dataType == null ? upload.getType() : dataType.getExchangeFormat().getFormatString();
+        this.version = upload.getVersion();
+    }
+    private Long id;
+    private Date creationDate;
+    private Date lastEditDate;
+    private String assetId;
+    private String sender;
+    private String type;
+    private Long version;
+}
@@ -0,0 +1,40 @@
+/**
+*	Copyright 2025 Software GmbH (previously Software AG)
+*    
+*    Licensed under the Apache License, Version 2.0 (the "License");
+*    you may not use this file except in compliance with the License.
+*    You may obtain a copy of the License at
+*    
+*      http://www.apache.org/licenses/LICENSE-2.0
+*    
+*    Unless required by applicable law or agreed to in writing, software
+*   distributed under the License is distributed on an "AS IS" BASIS,
+*    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+*    See the License for the specific language governing permissions and
+*    limitations under the License.
+*/
+
+package com.softwareag.aasservice.data;
+
+import java.util.Date;
+
+import com.softwareag.aasservice.mysql.dao.AASVersionRepository.VersionInfo;
+
+import lombok.Data;
+
+/**
+ * The metadata of a version in the history of an AAS without its data.
+ */
+@Data
+public class AASVersionMetadata {
+    public AASVersionMetadata(VersionInfo versionInfo) {
+        this.version = versionInfo.getVersion();
+        this.creationDate = versionInfo.getCreationDate();
+        this.sender = versionInfo.getSender();
+        this.snapshot = versionInfo.isSnapshot();
+    }
+    private int version;
+    private Date creationDate;
+    private String sender;
+    private boolean snapshot;
+}
@@ -0,0 +1,47 @@
+/**
+*	Copyright 2025 Software GmbH (previously Software AG)
+*    
+*    Licensed under the Apache License, Version 2.0 (the "License");
+*    you may not use this file except in compliance with the License.
+*    You may obtain a copy of the License at
+*    
+*      http://www.apache.org/licenses/LICENSE-2.0
+*    
+*    Unless required by applicable law or agreed to in writing, software
+*   distributed under the License is distributed on an "AS IS" BASIS,
+*    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+*    See the License for the specific language governing permissions and
+*    limitations under the License.
+*/
+
+package com.softwareag.aasservice.data;
+
+import lombok.Data;
+
+/**
+ * A single AASX or JSON file of a bulk upload. The format is derived from the
+ * file extension of the name. A file exceeding the maximum file size has no
+ * data.
+ */
+@Data
+public class BulkUploadFile {
+
+    public BulkUploadFile(String name, byte[] data) {
+        this.name = name;
+        this.data = data;
+    }
+
+    private String name;
+    private byte[] data;
+
+    public boolean exceedsMaxFileSize() {
+        return data == null;
+    }
+
+    public DataType getDataType() {
+        if (name == null || name.lastIndexOf('.') < 0)
+            return null;
+        return DataType.getExchangeFormatByString(name.substring(name.lastIndexOf('.') + 1).toLowerCase());
+    }
+
+}
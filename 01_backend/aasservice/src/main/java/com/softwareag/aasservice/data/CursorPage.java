@@ -0,0 +1,35 @@
+/**
+*	Copyright 2025 Software GmbH (previously Software AG)
+*    
+*    Licensed under the Apache License, Version 2.0 (the "License");
+*    you may not use this file except in compliance with the License.
+*    You may obtain a copy of the License at
+*    
+*      http://www.apache.org/licenses/LICENSE-2.0
+*    
+*    Unless required by applicable law or agreed to in writing, software
+*   distributed under the License is distributed on an "AS IS" BASIS,
+*    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+*    See the License for the specific language governing permissions and
+*    limitations under the License.
+*/
+
+package com.softwareag.aasservice.data;
+
+import java.util.List;
+
+import lombok.Data;
+
+/**
+ * One page of a keyset paginated list. {@code next} is the cursor of the
+ * following page and null on the last page.
+ */
+@Data
+public class CursorPage<T> {
+    public CursorPage(List<T> items, String next) {
+        this.items = items;
+        this.next = next;
+    }
+    private List<T> items;
+    private String next;
+}
@@ -17,19 +17,35 @@
 package com.softwareag.aasservice.data;
 
 public enum DataType {
-    AASX("aasx"), 
-    JSON("json");
+    AASX("aasx", true), 
+    JSON("json", true),
+    // binary JSON, only used to store environments
+    SMILE("smile", false);
 
     private String formatString;
 
-    DataType(String formatString) {
+    private boolean exchangeFormat;
+
+    DataType(String formatString, boolean exchangeFormat) {
         this.formatString = formatString;
+        this.exchangeFormat = exchangeFormat;
     }
 
     public String getFormatString() {
         return formatString;
     }
 
+    public boolean isExchangeFormat() {
+        return exchangeFormat;
+    }
+
+    /**
+     * @return The format the data is exchanged in, JSON for the binary JSON.
+     */
+    public DataType getExchangeFormat() {
+        return this == SMILE ? JSON : this;
+    }
+
     public static boolean isValid(String formatString) {
         for (DataType dataType : values()) {
             if (dataType.formatString.equals(formatString))
@@ -46,4 +62,13 @@ public enum DataType {
         return null;
     }
 
+    /**
+     * @return The DataType of a format AAS are uploaded and exported in, null
+     *         for the internal formats.
+     */
+    public static DataType getExchangeFormatByString(String value) {
+        DataType dataType = getDataTypeByString(value);
+        return dataType != null && dataType.exchangeFormat ? dataType : null;
+    }
+
 }
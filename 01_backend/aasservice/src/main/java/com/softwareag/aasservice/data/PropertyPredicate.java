@@ -0,0 +1,124 @@
+/**
+*	Copyright 2025 Software GmbH (previously Software AG)
+*    
+*    Licensed under the Apache License, Version 2.0 (the "License");
+*    you may not use this file except in compliance with the License.
+*    You may obtain a copy of the License at
+*    
+*      http://www.apache.org/licenses/LICENSE-2.0
+*    
+*    Unless required by applicable law or agreed to in writing, software
+*   distributed under the License is distributed on an "AS IS" BASIS,
+*    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+*    See the License for the specific language governing permissions and
+*    limitations under the License.
+*/
+
+package com.softwareag.aasservice.data;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import lombok.Data;
+
+/**
+ * A predicate on a property value of the AAS, written as
+ * "&lt;submodel&gt;.&lt;property&gt;&lt;operator&gt;&lt;value&gt;", e.g.
+ * "CarbonFootprint.PCFCO2eq&gt;2.5" or "Nameplate.ManufacturerName=ACME".
+ * The property is either an idShort, matching it in any collection of the
+ * submodel, or an idShort path like
+ * "ProductCarbonFootprint01/PCFCO2eq". "=" and "!=" compare the value as
+ * written, "~" matches values containing the value, the comparisons &lt;,
+ * &lt;=, &gt; and &gt;= require a number and compare numerically.
+ */
+@Data
+public class PropertyPredicate {
+
+    private static final Pattern PATTERN = Pattern
+            .compile("^([A-Za-z][A-Za-z0-9_-]*)\\.([^<>=!~]+?)\\s*(>=|<=|!=|=|>|<|~)\\s*(.*)$");
+
+    public enum Operator {
+        EQUALS("="),
+        NOT_EQUALS("!="),
+        GREATER_THAN(">"),
+        GREATER_THAN_OR_EQUAL(">="),
+        LESS_THAN("<"),
+        LESS_THAN_OR_EQUAL("<="),
+        CONTAINS("~");
+
+        private String symbol;
+
+        Operator(String symbol) {
+            this.symbol = symbol;
+        }
+
+        public String getSymbol() {
+            return symbol;
+        }
+
+        public boolean isComparison() {
+            return this != EQUALS && this != NOT_EQUALS && this != CONTAINS;
+        }
+
+        public static Operator getOperatorBySymbol(String symbol) {
+            for (Operator operator : values()) {
+                if (operator.symbol.equals(symbol))
+                    return operator;
+            }
+            return null;
+        }
+    }
+
+    private String submodel;
+    private String property;
+    private Operator operator;
+    private String value;
+    private Double number;
+
+    /**
+     * Parses a predicate.
+     *
+     * @param expression The predicate, e.g. "CarbonFootprint.PCFCO2eq&gt;2.5".
+     * @return The parsed predicate.
+     * @throws IllegalArgumentException If the expression is not a valid
+     *                                  predicate.
+     */
+    public static PropertyPredicate parse(String expression) {
+        Matcher matcher = expression == null ? null : PATTERN.matcher(expression.trim());
+        if (matcher == null || !matcher.matches())
+            throw new IllegalArgumentException("Invalid predicate: " + expression);
+
+        PropertyPredicate predicate = new PropertyPredicate();
+        predicate.setSubmodel(matcher.group(1));
+        predicate.setProperty(matcher.group(2).trim());
+        predicate.setOperator(Operator.getOperatorBySymbol(matcher.group(3)));
+        predicate.setValue(matcher.group(4));
+        predicate.setNumber(parseNumber(predicate.getValue()));
+
+        if (predicate.getOperator().isComparison() && predicate.getNumber() == null)
+            throw new IllegalArgumentException("The predicate requires a number: " + expression);
+        return predicate;
+    }
+
+    public boolean isPath() {
+        return property.contains("/");
+    }
+
+    /**
+     * Parses a property value as a number.
+     *
+     * @param value The value of the property.
+     * @return The number, null if the value is not a finite number.
+     */
+    public static Double parseNumber(String value) {
+        if (value == null || value.isBlank())
+            return null;
+        try {
+            double number = Double.parseDouble(value.trim());
+            return Double.isFinite(number) ? number : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,199 @@
+/**
+*	Copyright 2025 Software GmbH (previously Software AG)
+*    
+*    Licensed under the Apache License, Version 2.0 (the "License");
+*    you may not use this file except in compliance with the License.
+*    You may obtain a copy of the License at
+*    
+*      http://www.apache.org/licenses/LICENSE-2.0
+*    
+*    Unless required by applicable law or agreed to in writing, software
+*   distributed under the License is distributed on an "AS IS" BASIS,
+*    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+*    See the License for the specific language governing permissions and
+*    limitations under the License.
+*/
+
+package com.softwareag.aasservice.data;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.Inflater;
+
+/**
+ * Codecs in which the data of an AASUpload is stored. The codec of every
+ * stored upload is recorded next to its data, so the configured codec can be
+ * changed at any time.
+ */
+public enum StorageCodec {
+    IDENTITY("identity"),
+    GZIP("gzip"),
+    DEFLATE_DICTIONARY("deflate-dict-v1");
+
+    // Strings found in almost every AAS JSON environment. Deflate finds
+    // matches in the dictionary from the first byte on, the most frequent
+    // strings are at the end where the distances are shortest. The dictionary
+    // must never change, a new one needs a new codec.
+    private static final byte[] DICTIONARY = String.join("",
+            "\"https://admin-shell.io/zvei/nameplate/2/0/Nameplate\"",
+            "\"https://admin-shell.io/ZVEI/TechnicalData/Submodel/1/2\"",
+            "\"https://admin-shell.io/idta/CarbonFootprint/CarbonFootprint/0/9\"",
+            "\"0173-1#02-AAO677#002\"\"0173-1#02-AAW338#001\"\"0173-1#02-AAM556#002\"",
+            "\"embeddedDataSpecifications\":[{\"dataSpecification\":",
+            "\"dataSpecificationContent\":{\"modelType\":\"DataSpecificationIec61360\",\"preferredName\":",
+            "\"conceptDescriptions\":[{\"modelType\":\"ConceptDescription\",\"isCaseOf\":",
+            "\"assetAdministrationShells\":[{\"modelType\":\"AssetAdministrationShell\",",
+            "\"assetInformation\":{\"assetKind\":\"Instance\",\"globalAssetId\":\"",
+            "\"submodels\":[{\"modelType\":\"Submodel\",\"kind\":\"Instance\",",
+            "\"qualifiers\":[{\"kind\":\"ConceptQualifier\",\"type\":\"Multiplicity\",",
+            "\"valueType\":\"xs:decimal\"\"valueType\":\"xs:double\"\"valueType\":\"xs:integer\"",
+            "\"valueType\":\"xs:date\"\"valueType\":\"xs:anyURI\"\"contentType\":\"",
+            "\"modelType\":\"MultiLanguageProperty\",\"modelType\":\"File\",",
+            "\"modelType\":\"ReferenceElement\",\"modelType\":\"SubmodelElementList\",",
+            "\"displayName\":[{\"language\":\"de\",\"text\":\"",
+            "\"description\":[{\"language\":\"en\",\"text\":\"",
+            "\"type\":\"ModelReference\",\"keys\":[{\"type\":\"Submodel\",\"value\":\"",
+            "\"modelType\":\"SubmodelElementCollection\",\"value\":[{",
+            "\"valueType\":\"xs:string\",\"value\":\"",
+            "\"semanticId\":{\"type\":\"ExternalReference\",\"keys\":[{\"type\":\"GlobalReference\",\"value\":\"",
+            "\"modelType\":\"Property\",\"idShort\":\"")
+            .getBytes(StandardCharsets.UTF_8);
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private String codecString;
+
+    StorageCodec(String codecString) {
+        this.codecString = codecString;
+    }
+
+    public String getCodecString() {
+        return codecString;
+    }
+
+    /**
+     * Retrieves the codec of a stored upload. Uploads stored before codecs
+     * were introduced have no codec and are stored as they are.
+     *
+     * @param value The stored codec string.
+     * @return The codec, null if the value is unknown.
+     */
+    public static StorageCodec getCodecByString(String value) {
+        if (value == null)
+            return IDENTITY;
+        for (StorageCodec codec : values()) {
+            if (codec.codecString.equals(value))
+                return codec;
+        }
+        return null;
+    }
+
+    public byte[] encode(byte[] data) {
+        try {
+            switch (this) {
+                case GZIP:
+                    ByteArrayOutputStream outputStream = new ByteArrayOutputStream(data.length / 4);
+                    try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(outputStream, BUFFER_SIZE)) {
+                        gzipOutputStream.write(data);
+                    }
+                    return outputStream.toByteArray();
+                case DEFLATE_DICTIONARY:
+                    return deflate(data);
+                default:
+                    return data;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public byte[] decode(byte[] data) {
+        try {
+            switch (this) {
+                case GZIP:
+                    try (GZIPInputStream gzipInputStream = new GZIPInputStream(new ByteArrayInputStream(data),
+                            BUFFER_SIZE)) {
+                        return gzipInputStream.readAllBytes();
+                    }
+                case DEFLATE_DICTIONARY:
+                    return inflate(data);
+                default:
+                    return data;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Decodes the data while it is read.
+     *
+     * @param in The encoded data.
+     * @return The decoded data.
+     * @throws IOException If the data cannot be decoded.
+     */
+    public InputStream decode(InputStream in) throws IOException {
+        switch (this) {
+            case GZIP:
+                return new GZIPInputStream(in, BUFFER_SIZE);
+            case DEFLATE_DICTIONARY:
+                // InflaterInputStream does not support preset dictionaries
+                try (in) {
+                    return new ByteArrayInputStream(inflate(in.readAllBytes()));
+                }
+            default:
+                return in;
+        }
+    }
+
+    private static byte[] deflate(byte[] data) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setDictionary(DICTIONARY);
+            deflater.setInput(data);
+            deflater.finish();
+
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream(data.length / 4);
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (!deflater.finished())
+                outputStream.write(buffer, 0, deflater.deflate(buffer));
+            return outputStream.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] data) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data);
+
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream(data.length * 4);
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (!inflater.finished()) {
+                int length = inflater.inflate(buffer);
+                if (length == 0) {
+                    if (inflater.needsDictionary())
+                        inflater.setDictionary(DICTIONARY);
+                    else if (inflater.needsInput())
+                        throw new IOException("Unexpected end of deflated data");
+                }
+                outputStream.write(buffer, 0, length);
+            }
+            return outputStream.toByteArray();
+        } catch (DataFormatException e) {
+            throw new IOException(e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+}
@@ -0,0 +1,36 @@
+/**
+*	Copyright 2025 Software GmbH (previously Software AG)
+*    
+*    Licensed under the Apache License, Version 2.0 (the "License");
+*    you may not use this file except in compliance with the License.
+*    You may obtain a copy of the License at
+*    
+*      http://www.apache.org/licenses/LICENSE-2.0
+*    
+*    Unless required by applicable law or agreed to in writing, software
+*   distributed under the License is distributed on an "AS IS" BASIS,
+*    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+*    See the License for the specific language governing permissions and
+*    limitations under the License.
+*/
+
+package com.softwareag.aasservice.data;
+
+import lombok.Data;
+
+/**
+ * The response to a submission which was based on an outdated version of the
+ * AAS.
+ */
+@Data
+public class VersionConflict {
+    public VersionConflict(String message, Long currentVersion, String currentETag) {
+        this.message = message;
+        this.currentVersion = currentVersion;
+        this.currentETag = currentETag;
+    }
+    private String message;
+    // both null if the AAS does not exist (anymore)
+    private Long currentVersion;
+    private String currentETag;
+}
@@ -0,0 +1,51 @@
+/**
+*	Copyright 2025 Software GmbH (previously Software AG)
+*    
+*    Licensed under the Apache License, Version 2.0 (the "License");
+*    you may not use this file except in compliance with the License.
+*    You may obtain a copy of the License at
+*    
+*      http://www.apache.org/licenses/LICENSE-2.0
+*    
+*    Unless required by applicable law or agreed to in writing, software
+*   distributed under the License is distributed on an "AS IS" BASIS,
+*    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+*    See the License for the specific language governing permissions and
+*    limitations under the License.
+*/
+
+package com.softwareag.aasservice.data.repositories;
+
+import org.eclipse.digitaltwin.aas4j.v3.dataformat.json.JsonMapperFactory;
+import org.eclipse.digitaltwin.aas4j.v3.dataformat.json.JsonSerializer;
+import org.eclipse.digitaltwin.aas4j.v3.dataformat.json.SimpleAbstractTypeResolverFactory;
+import org.eclipse.digitaltwin.aas4j.v3.dataformat.xml.XmlDeserializer;
+import org.eclipse.digitaltwin.aas4j.v3.dataformat.xml.XmlSerializer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * The shared serializers and deserializers of aas4j. Creating them builds and
+ * configures their Jackson mappers, so they are created once. They only keep
+ * their configured mappers and are safe to be used by several threads at
+ * once.
+ *
+ * Spring managed code gets them injected through AASCodecConfig, these
+ * instances are for the code outside of the application context, e.g. the
+ * submodel templates.
+ */
+public final class AASCodecs {
+
+    public static final JsonSerializer JSON_SERIALIZER = new JsonSerializer();
+    public static final XmlDeserializer XML_DESERIALIZER = new XmlDeserializer();
+    public static final XmlSerializer XML_SERIALIZER = new XmlSerializer();
+    // the mapper of the JSON serializer, configured for the model of aas4j
+    public static final ObjectMapper JSON_MAPPER = new JsonMapperFactory()
+            .create(new SimpleAbstractTypeResolverFactory().create());
+    public static final ObjectMapper SMILE_MAPPER = JSON_MAPPER.copyWith(new SmileFactory());
+
+    private AASCodecs() {
+    }
+
+}
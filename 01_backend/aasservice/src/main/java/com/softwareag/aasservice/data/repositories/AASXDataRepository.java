@@ -16,45 +16,52 @@
 
 package com.softwareag.aasservice.data.repositories;
 
-import java.io.ByteArrayInputStream;
+import java.io.BufferedOutputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
-import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
 
 // import org.eclipse.digitaltwin.aas4j.v3.dataformat.SerializationException;
-import org.eclipse.digitaltwin.aas4j.v3.dataformat.aasx.AASXDeserializer;
-import org.eclipse.digitaltwin.aas4j.v3.dataformat.aasx.AASXSerializer;
 import org.eclipse.digitaltwin.aas4j.v3.dataformat.core.DeserializationException;
+import org.eclipse.digitaltwin.aas4j.v3.dataformat.core.SerializationException;
 import org.eclipse.digitaltwin.aas4j.v3.dataformat.xml.XmlDeserializer;
+import org.eclipse.digitaltwin.aas4j.v3.dataformat.xml.XmlSerializer;
 import org.eclipse.digitaltwin.aas4j.v3.model.Environment;
-import org.eclipse.digitaltwin.aas4j.v3.model.Submodel;
 
 import com.softwareag.aasservice.service.EnvironmentService;
 import com.softwareag.aasservice.utils.Constants;
+import com.softwareag.aasservice.utils.EmptyTagFilterInputStream;
 import com.softwareag.modelling.SubmodelTemplate;
 
 public class AASXDataRepository implements DataRepository {
 
-    public EnvironmentService readAASX(Class<? extends SubmodelTemplate>[] submodelTemplateClasses, File inputFile) {
-        try {
-            FileInputStream fileInputStream = new FileInputStream(inputFile);
-            AASXDeserializer deserializer = new AASXDeserializer(fileInputStream);
-            String xmlString = removeEmptyTags(deserializer.getXMLResourceString());
+    private final XmlDeserializer xmlDeserializer;
+    private final XmlSerializer xmlSerializer;
 
-            Environment environment = new XmlDeserializer().read(xmlString);
+    public AASXDataRepository() {
+        this(AASCodecs.XML_DESERIALIZER, AASCodecs.XML_SERIALIZER);
+    }
 
-            EnvironmentService envService = new EnvironmentService(environment);
+    public AASXDataRepository(XmlDeserializer xmlDeserializer, XmlSerializer xmlSerializer) {
+        this.xmlDeserializer = xmlDeserializer;
+        this.xmlSerializer = xmlSerializer;
+    }
+
+    public EnvironmentService readAASX(Class<? extends SubmodelTemplate>[] submodelTemplateClasses, File inputFile) {
+        try {
+            EnvironmentService envService = readPackage(map(inputFile));
 
             for (Class<? extends SubmodelTemplate> templateClass : submodelTemplateClasses) {
 
@@ -73,17 +80,12 @@ public class AASXDataRepository implements DataRepository {
                 
             }
 
-            fileInputStream.close();
             return envService;
 
-        } catch (FileNotFoundException e) {
+        } catch (NoSuchFileException e) {
             System.err.println("Error: The specified file was not found. Please check the file path and try again.");
             e.printStackTrace();
             return null;
-        } catch (InvalidFormatException e) {
-            System.err.println("Error: There is an InvalidFormatException.");
-            e.printStackTrace();
-            return null;
         } catch (IOException e) {
             System.err.println("Error: There is an IOException.");
             e.printStackTrace();
@@ -98,42 +100,46 @@ public class AASXDataRepository implements DataRepository {
     /* OBEN FÜR HAUSARBEIT */
 
     public EnvironmentService read(byte[] data) {
-        return readAASX(new ByteArrayInputStream(data));
+        return readAASX(() -> ByteBuffer.wrap(data));
+    }
+
+    /**
+     * Reads the package from the stream, which has to be copied to the heap
+     * to keep the supplementary files. Packages in a file or a blob store are
+     * better read in place.
+     */
+    public EnvironmentService read(InputStream in) {
+        return readAASX(() -> {
+            try (in) {
+                return ByteBuffer.wrap(in.readAllBytes());
+            }
+        });
     }
 
     public EnvironmentService read(File inputFile) {
         System.out.println("Reading from file: " + inputFile);
+        return readAASX(() -> map(inputFile));
+    }
 
-        try {
-            return readAASX(new FileInputStream(inputFile));
-        } catch (FileNotFoundException e) {
-            System.err.println("Error: The specified file was not found. Please check the file path and try again.");
-            e.printStackTrace();
-            return null;
-        }
-
+    /**
+     * Reads the package in place. Its supplementary files are not read, they
+     * are referenced in the buffer, which must therefore not change while the
+     * environment is used.
+     *
+     * @param aasx The package, e.g. the memory-mapped file of a blob store.
+     */
+    public EnvironmentService read(ByteBuffer aasx) {
+        return readAASX(() -> aasx);
     }
 
-    private EnvironmentService readAASX(InputStream in) {
+    private EnvironmentService readAASX(PackageSource source) {
         try {
-            AASXDeserializer deserializer = new AASXDeserializer(in);
-            String xmlString = removeEmptyTags(deserializer.getXMLResourceString());
+            return readPackage(source.get());
 
-            Environment environment = new XmlDeserializer().read(xmlString);
-
-            EnvironmentService envService = new EnvironmentService(environment);
-            // envService.setFilelist(deserializer.getRelatedFiles());
-            in.close();
-            return envService;
-
-        } catch (FileNotFoundException e) {
+        } catch (NoSuchFileException e) {
             System.err.println("Error: The specified file was not found. Please check the file path and try again.");
             e.printStackTrace();
             return null;
-        } catch (InvalidFormatException e) {
-            System.err.println("Error: There is an InvalidFormatException.");
-            e.printStackTrace();
-            return null;
         } catch (IOException e) {
             System.err.println("Error: There is an IOException.");
             e.printStackTrace();
@@ -158,9 +164,8 @@ public class AASXDataRepository implements DataRepository {
             // fileList.add(new InMemoryFile(fileContent, Constants.OUTPUT_DIRECTORY +
             // "/Stahl/Stahl.aasx"));
 
-            try (OutputStream fileOutputStream = new FileOutputStream(outputFile)) {
-                AASXSerializer serializer = new AASXSerializer();
-                serializer.write(env.getEnvironmentInstance(), env.getFileList(), fileOutputStream);
+            try (OutputStream fileOutputStream = new BufferedOutputStream(new FileOutputStream(outputFile))) {
+                write(env, fileOutputStream);
                 System.out.println("Successfully wrote on output file (" + outputFilename + ")");
             } catch (IOException e) {
                 // Handle the exceptions here
@@ -174,9 +179,8 @@ public class AASXDataRepository implements DataRepository {
 
     public byte[] write(EnvironmentService env) {
         try {
-            AASXSerializer serializer = new AASXSerializer();
             ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-            serializer.write(env.getEnvironmentInstance(), env.getFileList(), byteArrayOutputStream);
+            write(env, byteArrayOutputStream);
 
             return byteArrayOutputStream.toByteArray();
 
@@ -185,15 +189,56 @@ public class AASXDataRepository implements DataRepository {
         }
     }
 
-    private String removeEmptyTags(String xml) {
-        Pattern pattern = Pattern.compile("<[^>/]+\\s*/>");
-        Matcher matcher = pattern.matcher(xml);
-        StringBuffer sb = new StringBuffer();
-        while (matcher.find()) {
-            matcher.appendReplacement(sb, "");
+    /**
+     * Writes the package while the XML part is serialized, the supplementary
+     * files are copied from the packages they were read from. Neither the
+     * package nor one of its files is held in memory.
+     */
+    public void write(EnvironmentService env, OutputStream out) throws IOException {
+        Environment environment = env.getEnvironmentInstance();
+        AASXPackage.write(out, xml -> {
+            try {
+                Writer writer = new OutputStreamWriter(xml, StandardCharsets.UTF_8);
+                xmlSerializer.write(writer, environment);
+                writer.flush();
+            } catch (SerializationException e) {
+                throw new IOException("The environment could not be serialized.", e);
+            }
+        }, env.getSupplementaryFiles());
+    }
+
+    /**
+     * Deserializes the XML part of the package while it is inflated and
+     * filtered, so that no inflated or filtered copy of the XML document is
+     * made. The package itself stays where the buffer is: a file is mapped,
+     * while a package read from a byte array or a stream is on the heap as a
+     * whole, and so is its compressed XML part.
+     */
+    private EnvironmentService readPackage(ByteBuffer aasx) throws IOException, DeserializationException {
+        AASXPackage aasxPackage = AASXPackage.read(aasx);
+
+        Environment environment;
+        try (EmptyTagFilterInputStream xml = new EmptyTagFilterInputStream(aasxPackage.openXMLPart())) {
+            environment = xmlDeserializer.read(xml, xml.getCharset());
+        }
+
+        EnvironmentService envService = new EnvironmentService(environment);
+        envService.setSupplementaryFiles(aasxPackage.getSupplementaryFiles());
+        return envService;
+    }
+
+    // the mapping stays valid after the channel is closed
+    private static ByteBuffer map(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            // a ByteBuffer addresses at most 2 GB
+            if (channel.size() > Integer.MAX_VALUE)
+                throw new IOException("The AASX package " + file + " is larger than 2 GB.");
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
         }
-        matcher.appendTail(sb);
-        return sb.toString();
+    }
+
+    private interface PackageSource {
+        ByteBuffer get() throws IOException;
     }
 
 }
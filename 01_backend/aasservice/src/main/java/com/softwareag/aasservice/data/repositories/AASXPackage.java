@@ -0,0 +1,436 @@
+/**
+*	Copyright 2025 Software GmbH (previously Software AG)
+*    
+*    Licensed under the Apache License, Version 2.0 (the "License");
+*    you may not use this file except in compliance with the License.
+*    You may obtain a copy of the License at
+*    
+*      http://www.apache.org/licenses/LICENSE-2.0
+*    
+*    Unless required by applicable law or agreed to in writing, software
+*   distributed under the License is distributed on an "AS IS" BASIS,
+*    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+*    See the License for the specific language governing permissions and
+*    limitations under the License.
+*/
+
+package com.softwareag.aasservice.data.repositories;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.springframework.util.StreamUtils;
+
+import com.softwareag.aasservice.utils.ZipDirectory;
+
+/**
+ * The parts of an AASX package, an Open Packaging Conventions (OPC) zip file:
+ * the XML part with the environment and the supplementary files related to
+ * it. The package is read in place from a ByteBuffer, only its central
+ * directory, content types and relationships are parsed, so neither the
+ * environment nor the supplementary files are copied to the heap.
+ */
+public class AASXPackage {
+
+    private static final String ORIGIN_RELTYPE = "http://admin-shell.io/aasx/relationships/aasx-origin";
+    private static final String AASSPEC_RELTYPE = "http://admin-shell.io/aasx/relationships/aas-spec";
+    private static final String AASSUPPL_RELTYPE = "http://admin-shell.io/aasx/relationships/aas-suppl";
+    // relationship types of packages written for version 2 of the AAS
+    private static final String LEGACY_ORIGIN_RELTYPE = "http://www.admin-shell.io/aasx/relationships/aasx-origin";
+    private static final String LEGACY_AASSPEC_RELTYPE = "http://www.admin-shell.io/aasx/relationships/aas-spec";
+    private static final String LEGACY_AASSUPPL_RELTYPE = "http://www.admin-shell.io/aasx/relationships/aas-suppl";
+    private static final String THUMBNAIL_RELTYPE = "http://schemas.openxmlformats.org/package/2006/relationships/metadata/thumbnail";
+
+    private static final String CONTENT_TYPES_ENTRY = "[Content_Types].xml";
+    private static final String CONTENT_TYPES_NAMESPACE = "http://schemas.openxmlformats.org/package/2006/content-types";
+    private static final String RELATIONSHIPS_NAMESPACE = "http://schemas.openxmlformats.org/package/2006/relationships";
+    private static final String RELATIONSHIPS_CONTENT_TYPE = "application/vnd.openxmlformats-package.relationships+xml";
+    private static final String DEFAULT_CONTENT_TYPE = "application/octet-stream";
+
+    // the parts written by the AASXSerializer of aas4j
+    private static final String ORIGIN_PART = "/aasx/aasx-origin";
+    private static final String XML_PART = "/aasx/xml/content.xml";
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = createInputFactory();
+    private static final XMLOutputFactory XML_OUTPUT_FACTORY = XMLOutputFactory.newFactory();
+
+    private final ZipDirectory zipDirectory;
+    private final ZipDirectory.Entry xmlEntry;
+    private final Map<String, SupplementaryFile> supplementaryFiles = new LinkedHashMap<>();
+
+    private AASXPackage(ZipDirectory zipDirectory, ZipDirectory.Entry xmlEntry) {
+        this.zipDirectory = zipDirectory;
+        this.xmlEntry = xmlEntry;
+    }
+
+    /**
+     * Reads the structure of the package. The buffer must not change while
+     * the package or its supplementary files are used.
+     *
+     * @param aasx The package, e.g. the memory-mapped file of a blob store.
+     * @throws IOException If the buffer holds no valid AASX package.
+     */
+    public static AASXPackage read(ByteBuffer aasx) throws IOException {
+        ZipDirectory zipDirectory = ZipDirectory.read(aasx);
+
+        List<Relationship> packageRelationships = readRelationships(zipDirectory, "/");
+        String originPart = getTarget(packageRelationships, ORIGIN_RELTYPE, LEGACY_ORIGIN_RELTYPE);
+        if (originPart == null)
+            throw new IOException("The AASX package has no origin part.");
+
+        String xmlPart = getTarget(readRelationships(zipDirectory, originPart), AASSPEC_RELTYPE,
+                LEGACY_AASSPEC_RELTYPE);
+        ZipDirectory.Entry xmlEntry = xmlPart == null ? null : getEntry(zipDirectory, xmlPart);
+        if (xmlEntry == null)
+            throw new IOException("The AASX package has no AAS part.");
+
+        AASXPackage aasxPackage = new AASXPackage(zipDirectory, xmlEntry);
+        ContentTypes contentTypes = readContentTypes(zipDirectory);
+        for (Relationship relationship : readRelationships(zipDirectory, xmlPart)) {
+            if (AASSUPPL_RELTYPE.equals(relationship.type) || LEGACY_AASSUPPL_RELTYPE.equals(relationship.type))
+                aasxPackage.addSupplementaryFile(relationship.target, false, contentTypes);
+        }
+        for (Relationship relationship : packageRelationships) {
+            if (THUMBNAIL_RELTYPE.equals(relationship.type))
+                aasxPackage.addSupplementaryFile(relationship.target, true, contentTypes);
+        }
+        return aasxPackage;
+    }
+
+    /**
+     * @return The XML part with the environment, inflated while it is read.
+     */
+    public InputStream openXMLPart() throws IOException {
+        return zipDirectory.open(xmlEntry);
+    }
+
+    public List<SupplementaryFile> getSupplementaryFiles() {
+        return new ArrayList<>(supplementaryFiles.values());
+    }
+
+    /**
+     * @param path The name of the part, e.g. "/aasx/files/manual.pdf", with
+     *             or without percent-encoded characters. The leading '/' may
+     *             be omitted.
+     * @return The supplementary file, null if the package has none at the
+     *         path.
+     */
+    public SupplementaryFile getSupplementaryFile(String path) {
+        ZipDirectory.Entry entry = getEntry(zipDirectory, path.startsWith("/") ? path : "/" + path);
+        return entry == null ? null : supplementaryFiles.get(getPath(entry));
+    }
+
+    /**
+     * Writes an AASX package in the layout of aas4j. The supplementary files
+     * are copied from the packages they were read from while the package is
+     * written.
+     *
+     * @param out       The stream to write to, which is not closed.
+     * @param xmlWriter Writes the XML part with the environment.
+     * @param files     The supplementary files, those at the path of a part of
+     *                  the package itself are skipped.
+     */
+    public static void write(OutputStream out, XmlPartWriter xmlWriter, List<SupplementaryFile> files)
+            throws IOException {
+        Map<String, SupplementaryFile> filesByPath = new LinkedHashMap<>();
+        if (files != null) {
+            for (SupplementaryFile file : files) {
+                if (!ORIGIN_PART.equals(file.getPath()) && !XML_PART.equals(file.getPath())
+                        && !file.getPath().contains("/_rels/"))
+                    filesByPath.putIfAbsent(file.getPath(), file);
+            }
+        }
+
+        List<Relationship> packageRelationships = new ArrayList<>();
+        List<Relationship> xmlRelationships = new ArrayList<>();
+        packageRelationships.add(new Relationship(ORIGIN_RELTYPE, ORIGIN_PART));
+        for (SupplementaryFile file : filesByPath.values()) {
+            if (file.isThumbnail())
+                packageRelationships.add(new Relationship(THUMBNAIL_RELTYPE, file.getPath()));
+            else
+                xmlRelationships.add(new Relationship(AASSUPPL_RELTYPE, file.getPath()));
+        }
+
+        try (ZipOutputStream zip = new ZipOutputStream(StreamUtils.nonClosing(out))) {
+            zip.putNextEntry(new ZipEntry(CONTENT_TYPES_ENTRY));
+            writeContentTypes(zip, filesByPath.values());
+
+            zip.putNextEntry(new ZipEntry(getEntryName(getRelationshipsPart("/"))));
+            writeRelationships(zip, packageRelationships);
+
+            zip.putNextEntry(new ZipEntry(getEntryName(ORIGIN_PART)));
+            zip.write("Intentionally empty.".getBytes(StandardCharsets.UTF_8));
+
+            zip.putNextEntry(new ZipEntry(getEntryName(getRelationshipsPart(ORIGIN_PART))));
+            writeRelationships(zip, List.of(new Relationship(AASSPEC_RELTYPE, XML_PART)));
+
+            zip.putNextEntry(new ZipEntry(getEntryName(XML_PART)));
+            xmlWriter.write(StreamUtils.nonClosing(zip));
+
+            if (!xmlRelationships.isEmpty()) {
+                zip.putNextEntry(new ZipEntry(getEntryName(getRelationshipsPart(XML_PART))));
+                writeRelationships(zip, xmlRelationships);
+            }
+
+            for (SupplementaryFile file : filesByPath.values()) {
+                zip.putNextEntry(new ZipEntry(getEntryName(file.getPath())));
+                file.transferTo(zip);
+            }
+        }
+    }
+
+    // the path of a file is the name of its entry, as File elements reference it
+    private void addSupplementaryFile(String part, boolean thumbnail, ContentTypes contentTypes) {
+        ZipDirectory.Entry entry = getEntry(zipDirectory, part);
+        if (entry == null) {
+            System.err.println("Error: The supplementary file " + part + " is missing in the AASX package.");
+            return;
+        }
+
+        String path = getPath(entry);
+        if (!supplementaryFiles.containsKey(path))
+            supplementaryFiles.put(path,
+                    new SupplementaryFile(path, contentTypes.get(part), thumbnail, zipDirectory, entry));
+    }
+
+    private static String getTarget(List<Relationship> relationships, String type, String legacyType) {
+        for (Relationship relationship : relationships) {
+            if (type.equals(relationship.type))
+                return relationship.target;
+        }
+        for (Relationship relationship : relationships) {
+            if (legacyType.equals(relationship.type))
+                return relationship.target;
+        }
+        return null;
+    }
+
+    private static List<Relationship> readRelationships(ZipDirectory zipDirectory, String part) throws IOException {
+        List<Relationship> relationships = new ArrayList<>();
+        ZipDirectory.Entry entry = getEntry(zipDirectory, getRelationshipsPart(part));
+        if (entry == null)
+            return relationships;
+
+        try (InputStream in = zipDirectory.open(entry)) {
+            XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(in);
+            try {
+                while (reader.hasNext()) {
+                    if (reader.next() != XMLStreamConstants.START_ELEMENT
+                            || !"Relationship".equals(reader.getLocalName()))
+                        continue;
+
+                    String type = reader.getAttributeValue(null, "Type");
+                    String target = reader.getAttributeValue(null, "Target");
+                    if (type != null && target != null
+                            && !"External".equals(reader.getAttributeValue(null, "TargetMode")))
+                        relationships.add(new Relationship(type, resolve(part, target)));
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("The relationships of the part " + part + " are invalid.", e);
+        }
+        return relationships;
+    }
+
+    private static ContentTypes readContentTypes(ZipDirectory zipDirectory) throws IOException {
+        ContentTypes contentTypes = new ContentTypes();
+        ZipDirectory.Entry entry = zipDirectory.getEntry(CONTENT_TYPES_ENTRY);
+        if (entry == null)
+            return contentTypes;
+
+        try (InputStream in = zipDirectory.open(entry)) {
+            XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(in);
+            try {
+                while (reader.hasNext()) {
+                    if (reader.next() != XMLStreamConstants.START_ELEMENT)
+                        continue;
+
+                    String contentType = reader.getAttributeValue(null, "ContentType");
+                    if ("Default".equals(reader.getLocalName()))
+                        contentTypes.put(contentTypes.defaults, reader.getAttributeValue(null, "Extension"),
+                                contentType);
+                    else if ("Override".equals(reader.getLocalName()))
+                        contentTypes.put(contentTypes.overrides, reader.getAttributeValue(null, "PartName"),
+                                contentType);
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("The content types of the AASX package are invalid.", e);
+        }
+        return contentTypes;
+    }
+
+    private static void writeContentTypes(OutputStream out, Iterable<SupplementaryFile> files) throws IOException {
+        try {
+            XMLStreamWriter writer = XML_OUTPUT_FACTORY.createXMLStreamWriter(out, "UTF-8");
+            writer.writeStartDocument("UTF-8", "1.0");
+            writer.writeStartElement("Types");
+            writer.writeDefaultNamespace(CONTENT_TYPES_NAMESPACE);
+            writeContentType(writer, "Default", "Extension", "rels", RELATIONSHIPS_CONTENT_TYPE);
+            writeContentType(writer, "Default", "Extension", "xml", "application/xml");
+            writeContentType(writer, "Override", "PartName", ORIGIN_PART, "text/plain");
+            writeContentType(writer, "Override", "PartName", XML_PART, "text/xml");
+            for (SupplementaryFile file : files)
+                writeContentType(writer, "Override", "PartName", toPartName(file.getPath()),
+                        file.getContentType());
+            writer.writeEndElement();
+            writer.writeEndDocument();
+            // closing the writer does not close the stream
+            writer.flush();
+            writer.close();
+        } catch (XMLStreamException e) {
+            throw new IOException("The content types could not be written.", e);
+        }
+    }
+
+    private static void writeContentType(XMLStreamWriter writer, String element, String keyAttribute, String key,
+            String contentType) throws XMLStreamException {
+        writer.writeEmptyElement(element);
+        writer.writeAttribute(keyAttribute, key);
+        writer.writeAttribute("ContentType", contentType);
+    }
+
+    private static void writeRelationships(OutputStream out, List<Relationship> relationships) throws IOException {
+        try {
+            XMLStreamWriter writer = XML_OUTPUT_FACTORY.createXMLStreamWriter(out, "UTF-8");
+            writer.writeStartDocument("UTF-8", "1.0");
+            writer.writeStartElement("Relationships");
+            writer.writeDefaultNamespace(RELATIONSHIPS_NAMESPACE);
+            for (int i = 0; i < relationships.size(); i++) {
+                writer.writeEmptyElement("Relationship");
+                writer.writeAttribute("Type", relationships.get(i).type);
+                writer.writeAttribute("Target", toPartName(relationships.get(i).target));
+                writer.writeAttribute("Id", "R" + (i + 1));
+            }
+            writer.writeEndElement();
+            writer.writeEndDocument();
+            writer.flush();
+            writer.close();
+        } catch (XMLStreamException e) {
+            throw new IOException("The relationships could not be written.", e);
+        }
+    }
+
+    /**
+     * Looks the part up by its name, or by its name with percent-encoded
+     * characters decoded, as OPC writers differ in how they name the entries.
+     */
+    private static ZipDirectory.Entry getEntry(ZipDirectory zipDirectory, String part) {
+        ZipDirectory.Entry entry = zipDirectory.getEntry(getEntryName(part));
+        if (entry != null || part.indexOf('%') < 0)
+            return entry;
+
+        try {
+            return zipDirectory.getEntry(getEntryName(new URI(part).getPath()));
+        } catch (URISyntaxException e) {
+            return null;
+        }
+    }
+
+    // e.g. "/_rels/.rels" for the package and "/aasx/xml/_rels/content.xml.rels" for its XML part
+    private static String getRelationshipsPart(String part) {
+        int slash = part.lastIndexOf('/');
+        return part.substring(0, slash + 1) + "_rels/" + part.substring(slash + 1) + ".rels";
+    }
+
+    private static String getPath(ZipDirectory.Entry entry) {
+        return "/" + entry.getName();
+    }
+
+    // part names are URIs, e.g. spaces are percent-encoded
+    private static String toPartName(String path) {
+        try {
+            return new URI(null, null, path, null).toASCIIString();
+        } catch (URISyntaxException e) {
+            return path;
+        }
+    }
+
+    private static String getEntryName(String part) {
+        return part.startsWith("/") ? part.substring(1) : part;
+    }
+
+    private static String resolve(String sourcePart, String target) {
+        try {
+            return new URI(sourcePart).resolve(new URI(target)).toString();
+        } catch (URISyntaxException e) {
+            // e.g. unencoded spaces, which some writers leave in their targets
+            return target.startsWith("/") ? target : sourcePart.substring(0, sourcePart.lastIndexOf('/') + 1) + target;
+        }
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+
+    /**
+     * Writes the XML part of a package.
+     */
+    @FunctionalInterface
+    public interface XmlPartWriter {
+        void write(OutputStream out) throws IOException;
+    }
+
+    private static class Relationship {
+
+        private final String type;
+        private final String target;
+
+        private Relationship(String type, String target) {
+            this.type = type;
+            this.target = target;
+        }
+
+    }
+
+    private static class ContentTypes {
+
+        private final Map<String, String> defaults = new HashMap<>();
+        private final Map<String, String> overrides = new HashMap<>();
+
+        // part names and extensions are compared case-insensitively
+        private void put(Map<String, String> contentTypes, String key, String contentType) {
+            if (key != null && contentType != null)
+                contentTypes.put(key.toLowerCase(Locale.ROOT), contentType);
+        }
+
+        private String get(String part) {
+            String contentType = overrides.get(part.toLowerCase(Locale.ROOT));
+            if (contentType != null)
+                return contentType;
+
+            String extension = part.substring(part.lastIndexOf('/') + 1);
+            extension = extension.indexOf('.') < 0 ? "" : extension.substring(extension.lastIndexOf('.') + 1);
+            return defaults.getOrDefault(extension.toLowerCase(Locale.ROOT), DEFAULT_CONTENT_TYPE);
+        }
+
+    }
+
+}
@@ -17,6 +17,9 @@
 package com.softwareag.aasservice.data.repositories;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 
 import com.softwareag.aasservice.service.EnvironmentService;
 
@@ -24,6 +27,8 @@ import com.softwareag.aasservice.service.EnvironmentService;
 public interface DataRepository {
     public abstract EnvironmentService read(byte[] data);
     public abstract EnvironmentService read(File inputFile);
+    public abstract EnvironmentService read(InputStream in);
     public abstract void write(EnvironmentService environment, String outputFilename);
     public abstract byte[] write(EnvironmentService environment);
+    public abstract void write(EnvironmentService environment, OutputStream out) throws IOException;
 }
@@ -16,31 +16,44 @@
 
 package com.softwareag.aasservice.data.repositories;
 
+import java.io.BufferedOutputStream;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStream;
-import java.nio.charset.Charset;
-import java.util.UUID;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 
-import org.eclipse.digitaltwin.aas4j.v3.dataformat.core.DeserializationException;
 import org.eclipse.digitaltwin.aas4j.v3.dataformat.core.SerializationException;
-import org.eclipse.digitaltwin.aas4j.v3.dataformat.json.JsonDeserializer;
 import org.eclipse.digitaltwin.aas4j.v3.dataformat.json.JsonSerializer;
-import org.eclipse.digitaltwin.aas4j.v3.model.Environment;
+import org.springframework.util.StreamUtils;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.softwareag.aasservice.service.EnvironmentService;
+import com.softwareag.aasservice.service.LazyEnvironment;
 import com.softwareag.aasservice.utils.Constants;
 
 public class JsonDataRepository implements DataRepository {
 
+    private final JsonSerializer jsonSerializer;
+    private final ObjectMapper jsonMapper;
+
+    public JsonDataRepository() {
+        this(AASCodecs.JSON_SERIALIZER, AASCodecs.JSON_MAPPER);
+    }
+
+    public JsonDataRepository(JsonSerializer jsonSerializer, ObjectMapper jsonMapper) {
+        this.jsonSerializer = jsonSerializer;
+        this.jsonMapper = jsonMapper;
+    }
+
     public EnvironmentService read(byte[] data) {
         return readJSON(new ByteArrayInputStream(data));
     }
@@ -58,18 +71,19 @@ public class JsonDataRepository implements DataRepository {
 
     }
 
-    public EnvironmentService readJSON(InputStream in) {
-        try {
-            JsonDeserializer deserializer = new JsonDeserializer();
+    public EnvironmentService read(InputStream in) {
+        return readJSON(in);
+    }
 
-            Environment env = deserializer.read(in, Environment.class);
-            in.close();
-            return new EnvironmentService(env);
+    public EnvironmentService readJSON(InputStream in) {
+        try (in) {
+            // the submodels are deserialized when they are used
+            return new EnvironmentService(LazyEnvironment.read(jsonMapper, in));
         } catch (FileNotFoundException e) {
             System.err.println("Error: The specified file was not found. Please check the file path and try again.");
             e.printStackTrace();
             return null;
-        } catch (DeserializationException e) {
+        } catch (JsonProcessingException e) {
             System.err.println("Error: There is a DeserializationException.");
             return null;
         } catch (IOException e) {
@@ -82,49 +96,43 @@ public class JsonDataRepository implements DataRepository {
         File outputFile = new File(Constants.OUTPUT_DIRECTORY + "/" + outputFilename);
         System.out.println("Writing to the file: " + outputFile);
 
-        try {
-            JsonSerializer serializer = new JsonSerializer();
-            String jsonString = serializer.write(env.getEnvironmentInstance());
-
-            try (FileWriter fileWriter = new FileWriter(outputFile)) {
-
-                fileWriter.write(jsonString);
-                System.out.println("Successfully wrote on output file (" + outputFilename + ")");
-
-            } catch (IOException e) {
-                System.err.println("Failed to write on the output file.");
-                e.printStackTrace();
-            }
-        } catch (SerializationException e1) {
-            e1.printStackTrace();
+        try (OutputStream fileOutputStream = new BufferedOutputStream(new FileOutputStream(outputFile))) {
+            write(env, fileOutputStream);
+            System.out.println("Successfully wrote on output file (" + outputFilename + ")");
+        } catch (IOException e) {
+            System.err.println("Failed to write on the output file.");
+            e.printStackTrace();
         }
     }
 
     public byte[] write(EnvironmentService env) {
         try {
-            JsonSerializer serializer = new JsonSerializer();
-            String jsonString = serializer.write(env.getEnvironmentInstance());
             ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-
-            try {
-                outputStream.write(jsonString.getBytes());
-                return outputStream.toByteArray();
-            } catch (IOException e) {
-                System.err.println("Failed to write to byte array.");
-                e.printStackTrace();
-                return null;
-            } finally {
-                try {
-                    outputStream.close();
-                } catch (IOException e) {
-                    // Ignore, closing
-                }
-            }
-        } catch (SerializationException e) {
+            write(env, outputStream);
+            return outputStream.toByteArray();
+        } catch (IOException e) {
             System.err.println("Error serializing AssetAdministrationShellEnvironment");
             e.printStackTrace();
             return null;
         }
     }
 
+    public void write(EnvironmentService env, OutputStream out) throws IOException {
+        LazyEnvironment lazyEnvironment = env.getLazyEnvironment();
+        if (lazyEnvironment != null) {
+            try (JsonGenerator generator = jsonMapper.createGenerator(StreamUtils.nonClosing(out), JsonEncoding.UTF8)) {
+                lazyEnvironment.write(generator);
+            }
+            return;
+        }
+
+        try {
+            // the serializer closes the stream it writes to
+            jsonSerializer.write(StreamUtils.nonClosing(out), StandardCharsets.UTF_8,
+                    env.getEnvironmentInstance());
+        } catch (SerializationException e) {
+            throw new IOException("The environment could not be serialized.", e);
+        }
+    }
+
 }
@@ -0,0 +1,120 @@
+/**
+*	Copyright 2025 Software GmbH (previously Software AG)
+*    
+*    Licensed under the Apache License, Version 2.0 (the "License");
+*    you may not use this file except in compliance with the License.
+*    You may obtain a copy of the License at
+*    
+*      http://www.apache.org/licenses/LICENSE-2.0
+*    
+*    Unless required by applicable law or agreed to in writing, software
+*   distributed under the License is distributed on an "AS IS" BASIS,
+*    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+*    See the License for the specific language governing permissions and
+*    limitations under the License.
+*/
+
+package com.softwareag.aasservice.data.repositories;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.springframework.util.StreamUtils;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.softwareag.aasservice.service.EnvironmentService;
+import com.softwareag.aasservice.service.LazyEnvironment;
+import com.softwareag.aasservice.utils.Constants;
+
+/**
+ * Reads and writes environments in Smile, the binary form of the JSON of
+ * aas4j. It is parsed and written much faster than AASX and is only used to
+ * store environments, AASX and JSON are produced on export. Supplementary
+ * files are not part of it.
+ */
+public class SmileDataRepository implements DataRepository {
+
+    private final ObjectMapper smileMapper;
+
+    public SmileDataRepository() {
+        this(AASCodecs.SMILE_MAPPER);
+    }
+
+    public SmileDataRepository(ObjectMapper smileMapper) {
+        this.smileMapper = smileMapper;
+    }
+
+    public EnvironmentService read(byte[] data) {
+        return readSmile(new ByteArrayInputStream(data));
+    }
+
+    public EnvironmentService read(File inputFile) {
+        try {
+            return readSmile(new FileInputStream(inputFile));
+        } catch (FileNotFoundException e) {
+            System.err.println("Error: The specified file was not found. Please check the file path and try again.");
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    public EnvironmentService read(InputStream in) {
+        return readSmile(in);
+    }
+
+    private EnvironmentService readSmile(InputStream in) {
+        try (in) {
+            // the submodels are deserialized when they are used
+            return new EnvironmentService(LazyEnvironment.read(smileMapper, in));
+        } catch (IOException e) {
+            System.err.println("Error: The environment could not be read from Smile.");
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    public void write(EnvironmentService env, String outputFilename) {
+        File outputFile = new File(Constants.OUTPUT_DIRECTORY + "/" + outputFilename);
+
+        try (OutputStream fileOutputStream = new BufferedOutputStream(new FileOutputStream(outputFile))) {
+            write(env, fileOutputStream);
+        } catch (IOException e) {
+            System.err.println("Failed to write on the output file.");
+            e.printStackTrace();
+        }
+    }
+
+    public byte[] write(EnvironmentService env) {
+        try {
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            write(env, outputStream);
+            return outputStream.toByteArray();
+        } catch (IOException e) {
+            System.err.println("Error serializing AssetAdministrationShellEnvironment");
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    public void write(EnvironmentService env, OutputStream out) throws IOException {
+        LazyEnvironment lazyEnvironment = env.getLazyEnvironment();
+        if (lazyEnvironment == null) {
+            smileMapper.writeValue(StreamUtils.nonClosing(out), env.getEnvironmentInstance());
+            return;
+        }
+
+        try (JsonGenerator generator = smileMapper.createGenerator(StreamUtils.nonClosing(out))) {
+            lazyEnvironment.write(generator);
+        }
+    }
+
+}
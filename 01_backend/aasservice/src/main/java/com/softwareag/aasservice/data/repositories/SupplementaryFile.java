@@ -0,0 +1,85 @@
+/**
+*	Copyright 2025 Software GmbH (previously Software AG)
+*    
+*    Licensed under the Apache License, Version 2.0 (the "License");
+*    you may not use this file except in compliance with the License.
+*    You may obtain a copy of the License at
+*    
+*      http://www.apache.org/licenses/LICENSE-2.0
+*    
+*    Unless required by applicable law or agreed to in writing, software
+*   distributed under the License is distributed on an "AS IS" BASIS,
+*    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+*    See the License for the specific language governing permissions and
+*    limitations under the License.
+*/
+
+package com.softwareag.aasservice.data.repositories;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import com.softwareag.aasservice.utils.ZipDirectory;
+
+/**
+ * A supplementary file of an AASX package, e.g. a PDF referenced by a File
+ * element or the thumbnail of the asset. The file stays in the package it was
+ * read from and is only read when it is opened, so holding it costs no more
+ * than its entry in the central directory.
+ */
+public class SupplementaryFile {
+
+    private final String path;
+    private final String contentType;
+    private final boolean thumbnail;
+    private final ZipDirectory zipDirectory;
+    private final ZipDirectory.Entry entry;
+
+    SupplementaryFile(String path, String contentType, boolean thumbnail, ZipDirectory zipDirectory,
+            ZipDirectory.Entry entry) {
+        this.path = path;
+        this.contentType = contentType;
+        this.thumbnail = thumbnail;
+        this.zipDirectory = zipDirectory;
+        this.entry = entry;
+    }
+
+    /**
+     * @return The name of the part in the package, e.g.
+     *         "/aasx/files/manual.pdf", as referenced by File elements.
+     */
+    public String getPath() {
+        return path;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public boolean isThumbnail() {
+        return thumbnail;
+    }
+
+    public long getSize() {
+        return entry.getSize();
+    }
+
+    /**
+     * @return The directory of the package the file is read from.
+     */
+    public ZipDirectory getZipDirectory() {
+        return zipDirectory;
+    }
+
+    public InputStream open() throws IOException {
+        return zipDirectory.open(entry);
+    }
+
+    public void transferTo(OutputStream out) throws IOException {
+        try (InputStream in = open()) {
+            in.transferTo(out);
+        }
+    }
+
+}
@@ -16,20 +16,24 @@
 
 package com.softwareag.aasservice.mysql.controller;
 
-import java.nio.charset.StandardCharsets;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.security.NoSuchAlgorithmException;
 import java.text.ParseException;
-import java.util.Base64;
 import java.util.Date;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataIntegrityViolationException;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -39,20 +43,27 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
 
 import com.google.gson.Gson;
+import com.softwareag.aasservice.config.PaginationConfig;
+import com.softwareag.aasservice.data.AASUploadMetadata;
+import com.softwareag.aasservice.data.BulkUploadFile;
+import com.softwareag.aasservice.data.CursorPage;
 import com.softwareag.aasservice.data.DataType;
 import com.softwareag.aasservice.mysql.dao.AASUploadRepository;
-import com.softwareag.aasservice.mysql.dao.APIKeyRepository;
 import com.softwareag.aasservice.mysql.entity.AASUpload;
-import com.softwareag.aasservice.mysql.entity.APIKey;
+import com.softwareag.aasservice.mysql.response.BulkUploadItemResponse;
 import com.softwareag.aasservice.mysql.response.RESTResponse;
 import com.softwareag.aasservice.mysql.spec.AASUploadSpecifications;
+import com.softwareag.aasservice.service.AASBulkUploadService;
+import com.softwareag.aasservice.service.AASUploadPipeline;
+import com.softwareag.aasservice.service.AASUploadService;
 import com.softwareag.aasservice.service.APIKeyService;
-import com.softwareag.aasservice.service.AASUpload.AASUploadValidator;
 import com.softwareag.aasservice.utils.Constants;
 import com.softwareag.aasservice.utils.DateConverter;
-import com.softwareag.aasservice.utils.SHA256;
+import com.softwareag.aasservice.utils.KeysetCursor;
+import com.softwareag.aasservice.utils.ZipFileIterator;
 
 @RestController
 @RequestMapping("/api")
@@ -64,6 +75,18 @@ public class AASUploadController {
     @Autowired
     private APIKeyService apiKeyService;
 
+    @Autowired
+    private AASUploadService uploadService;
+
+    @Autowired
+    private AASUploadPipeline uploadPipeline;
+
+    @Autowired
+    private AASBulkUploadService bulkUploadService;
+
+    @Autowired
+    private PaginationConfig paginationConfig;
+
     /**
      * Behandelt einen POST-Anforderung zum Hochladen einer Asset Administration
      * Shell.
@@ -72,7 +95,8 @@ public class AASUploadController {
      * @param apiKey  Der API-Schlüssel
      * @param assetId Die assetID des Assets, die der assetID des hochgeladene AAS
      *                entspricht.
-     * @param format  Das Format der AAS (json/aasx).
+     * @param format  Das Format der AAS (json/aasx), andere Formate werden mit
+     *                400 abgelehnt.
      * @return Eine ResponseEntity, die den Status und die Nachricht der
      *         Upload-Aktion enthält.
      * @throws NoSuchAlgorithmException
@@ -89,21 +113,26 @@ public class AASUploadController {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                         .body(gson.toJson(new RESTResponse(false, "Invalid API Key!")));
 
-            if (uploadRepository.findByAssetId(assetId).size() > 0)
-                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                        .body(gson.toJson(new RESTResponse(false,
-                                "The specified AssetID already exists!")));
-
-            DataType dataType = DataType.getDataTypeByString(format);
-
-            if (!AASUploadValidator.isValidAAS(data, assetId, dataType))
+            DataType dataType = DataType.getExchangeFormatByString(format);
+            if (dataType == null)
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                         .body(gson.toJson(new RESTResponse(false,
-                                "The uploaded file is not a valid AAS or does not match the specified data type! Make sure that the specified AssetId is equal to the AssetId of the AAS!")));
-
-            insertAASToDatabase(data, assetId, sender, dataType);
-            return ResponseEntity
-                    .ok(gson.toJson(new RESTResponse(true, "Asset Administration Shell uploaded successfully!")));
+                                "Unsupported format! Only aasx and json can be uploaded.")));
+
+            // die AAS wird nur einmal deserialisiert, siehe AASUploadPipeline
+            switch (uploadPipeline.upload(data, assetId, sender, dataType)) {
+                case DUPLICATE:
+                    return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                            .body(gson.toJson(new RESTResponse(false,
+                                    "The specified AssetID already exists!")));
+                case INVALID:
+                    return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                            .body(gson.toJson(new RESTResponse(false,
+                                    "The uploaded file is not a valid AAS or does not match the specified data type! Make sure that the specified AssetId is equal to the AssetId of the AAS!")));
+                default:
+                    return ResponseEntity.ok(gson.toJson(new RESTResponse(true,
+                            "Asset Administration Shell uploaded successfully!")));
+            }
 
         } catch (DataIntegrityViolationException e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -111,6 +140,58 @@ public class AASUploadController {
         }
     }
 
+    /**
+     * Behandelt eine POST-Anforderung zum Hochladen mehrerer Asset
+     * Administration Shells als Multipart-Anfrage. Das Format jeder Datei wird
+     * aus ihrer Dateiendung (.aasx/.json) bestimmt, die assetID aus der AAS
+     * selbst.
+     *
+     * @param apiKey Der API-Schlüssel
+     * @param files  Die hochzuladenden AASX- und JSON-Dateien.
+     * @return Eine ResponseEntity, die für jede Datei in der Reihenfolge der
+     *         Dateien den Status und die Nachricht des Uploads enthält.
+     */
+    @PostMapping(value = "/upload/bulk", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<String> uploadAASBulk(@RequestHeader("apiKey") String apiKey,
+            @RequestParam("files") List<MultipartFile> files) throws NoSuchAlgorithmException {
+        Iterator<MultipartFile> iterator = files.iterator();
+        // die Dateien werden erst beim Verarbeiten ihres Batches gelesen
+        return uploadBulk(apiKey, new Iterator<BulkUploadFile>() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public BulkUploadFile next() {
+                MultipartFile file = iterator.next();
+                try {
+                    return new BulkUploadFile(file.getOriginalFilename(), file.getBytes());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        });
+    }
+
+    /**
+     * Behandelt eine POST-Anforderung zum Hochladen mehrerer Asset
+     * Administration Shells als Zip-Datei. Die Zip-Datei wird beim Lesen
+     * verarbeitet, sodass sie nie vollständig im Speicher liegt. Dateien, die
+     * entpackt größer als die maximale Dateigröße sind, werden abgelehnt.
+     *
+     * @param apiKey Der API-Schlüssel
+     * @param body   Die Zip-Datei mit den hochzuladenden AASX- und
+     *               JSON-Dateien.
+     * @return Eine ResponseEntity, die für jede Datei in der Reihenfolge der
+     *         Dateien den Status und die Nachricht des Uploads enthält.
+     */
+    @PostMapping(value = "/upload/bulk", consumes = { "application/zip", "application/x-zip-compressed" })
+    public ResponseEntity<String> uploadAASBulkZip(@RequestHeader("apiKey") String apiKey, InputStream body)
+            throws NoSuchAlgorithmException {
+        return uploadBulk(apiKey, new ZipFileIterator(body, bulkUploadService.getMaxFileSize()));
+    }
+
     /**
      * Behandelt einen DELETE-Anforderung zum Löschen einer Asset Administration
      * Shell.
@@ -145,7 +226,7 @@ public class AASUploadController {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                         .body(gson.toJson(new RESTResponse(false, "You are not authorized to delete this asset!")));
 
-            uploadRepository.delete(aasUpload);
+            uploadService.delete(aasUpload);
 
             return ResponseEntity
                     .ok(gson.toJson(new RESTResponse(true, "Asset Administration Shell deleted successfully!")));
@@ -157,17 +238,38 @@ public class AASUploadController {
     }
 
     /**
-     * Behandelt eine GET-Anforderung zum Abrufen aller hochgeladenen AAS.
+     * Behandelt eine GET-Anforderung zum Abrufen aller hochgeladenen AAS. Wird
+     * ein Cursor oder ein Limit angegeben, wird nach ID sortiert seitenweise
+     * über den Cursor statt über den Offset geblättert.
      *
      * @param apiKey   Der API-Schlüssel für die Autorisierung der Anfrage.
      *                 (Optional: Wenn erforderlich, sollte im Header "apiKey"
      *                 enthalten sein.)
      * @param pageable Die Paginierungsinformationen.
-     * @return Eine Page-Instanz, die eine Liste der AASUpload-Objekte enthält.
+     * @param cursor   Der Cursor der angeforderten Seite (optional).
+     * @param limit    Die maximale Anzahl an AASUploads pro Seite (optional).
+     * @return Eine Page-Instanz, die eine Liste der Metadaten der AASUploads
+     *         ohne die hochgeladenen Daten enthält, bzw. eine CursorPage mit
+     *         dem Cursor der nächsten Seite.
      */
     @GetMapping("/getAll")
-    public Page<AASUpload> getAll(@RequestHeader(name = "apiKey", required = false) String apiKey, Pageable pageable) {
-        return uploadRepository.findAll(pageable);
+    public ResponseEntity<?> getAll(@RequestHeader(name = "apiKey", required = false) String apiKey, Pageable pageable,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        if (cursor == null && limit == null)
+            return ResponseEntity.ok(uploadRepository.findAll(pageable).map(AASUploadMetadata::new));
+
+        try {
+            Slice<AASUpload> uploads = uploadRepository.findByIdGreaterThan(KeysetCursor.decode(cursor),
+                    PageRequest.of(0, paginationConfig.getPageSize(limit), Sort.by("id")));
+            List<AASUpload> items = uploads.getContent();
+            String next = uploads.hasNext() ? KeysetCursor.encode(items.get(items.size() - 1).getId()) : null;
+            return ResponseEntity.ok(new CursorPage<>(items.stream().map(AASUploadMetadata::new).toList(), next));
+        } catch (IllegalArgumentException e) {
+            Gson gson = new Gson();
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(gson.toJson(new RESTResponse(false, "Invalid cursor or limit!")));
+        }
     }
 
     /**
@@ -188,11 +290,11 @@ public class AASUploadController {
      *                           (optional).
      * @param type               Der Typ, nach dem gefiltert werden soll (json/aasx)
      *                           (optional).
-     * @return Eine Liste von AASUpload-Objekten, die den angegebenen
-     *         Filterkriterien entsprechen.
+     * @return Eine Liste der Metadaten der AASUploads, die den angegebenen
+     *         Filterkriterien entsprechen, ohne die hochgeladenen Daten.
      */
     @GetMapping("/filter")
-    public List<AASUpload> getAASUploads(@RequestHeader(name = "apiKey", required = false) String apiKey,
+    public List<AASUploadMetadata> getAASUploads(@RequestHeader(name = "apiKey", required = false) String apiKey,
             @RequestParam(required = false) String assetId,
             @RequestParam(required = false) String creationDateAfter,
             @RequestParam(required = false) String creationDateBefore,
@@ -229,42 +331,24 @@ public class AASUploadController {
             spec = spec.and(AASUploadSpecifications.formatEquals(format));
         }
 
-        return uploadRepository.findAll(spec);
+        return uploadRepository.findAll(spec).stream().map(AASUploadMetadata::new).toList();
     }
 
-    /**
-     * Fügt eine Asset Administration Shell in die Datenbank ein.
-     *
-     * @param data     Das Byte-Array, das die Daten der AAS enthält.
-     * @param assetId  Die assetID des Assets.
-     * @param sender   Der Absender, der die AAS hochlädt.
-     * @param dataType Der Datentyp der AAS (json/aasx).
-     */
-    private void insertAASToDatabase(byte[] data, String assetId, String sender, DataType dataType) {
-
-        AASUpload aasUpload = new AASUpload();
-        aasUpload.setLastEditDate(new Date());
-
-        switch (dataType) {
-
-            case AASX:
-                String base64String = Base64.getEncoder().encodeToString(data);
-                aasUpload.setUpload(base64String);
-                break;
+    private ResponseEntity<String> uploadBulk(String apiKey, Iterator<BulkUploadFile> files)
+            throws NoSuchAlgorithmException {
+        Gson gson = new Gson();
 
-            case JSON:
-                String jsonString = new String(data, StandardCharsets.UTF_8);
-                aasUpload.setUpload(jsonString);
-                break;
+        String sender = apiKeyService.getSenderByAPIKey(apiKey);
+        if (sender == null)
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(gson.toJson(new RESTResponse(false, "Invalid API Key!")));
 
-            default:
-                break;
-        }
-        aasUpload.setAssetId(assetId);
-        aasUpload.setSender(sender);
-        aasUpload.setType(dataType.getFormatString());
-        uploadRepository.save(aasUpload);
+        List<BulkUploadItemResponse> results = bulkUploadService.upload(files, sender);
+        if (results.isEmpty())
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(gson.toJson(new RESTResponse(false, "The request does not contain any files!")));
 
+        return ResponseEntity.ok(gson.toJson(results));
     }
 
 }
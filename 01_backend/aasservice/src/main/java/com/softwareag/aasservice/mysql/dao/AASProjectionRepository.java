@@ -0,0 +1,48 @@
+/**
+*	Copyright 2025 Software GmbH (previously Software AG)
+*    
+*    Licensed under the Apache License, Version 2.0 (the "License");
+*    you may not use this file except in compliance with the License.
+*    You may obtain a copy of the License at
+*    
+*      http://www.apache.org/licenses/LICENSE-2.0
+*    
+*    Unless required by applicable law or agreed to in writing, software
+*   distributed under the License is distributed on an "AS IS" BASIS,
+*    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+*    See the License for the specific language governing permissions and
+*    limitations under the License.
+*/
+
+package com.softwareag.aasservice.mysql.dao;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import com.softwareag.aasservice.mysql.entity.AASProjection;
+
+import jakarta.persistence.QueryHint;
+import jakarta.transaction.Transactional;
+
+@Transactional
+public interface AASProjectionRepository extends JpaRepository<AASProjection, Long>,
+        JpaSpecificationExecutor<AASProjection> {
+
+    List<AASProjection> findAllByOrderByUploadIdAsc();
+    List<AASProjection> findByAssetIdOrderByUploadIdAsc(String assetId);
+    List<AASProjection> findByUploadIdInOrderByUploadIdAsc(Collection<Long> uploadIds);
+
+    void deleteByAssetId(String assetId);
+
+    // MySQL Connector/J only streams row by row with a fetch size of Integer.MIN_VALUE
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+    Stream<AASProjection> streamAllByOrderByUploadIdAsc();
+}
@@ -0,0 +1,44 @@
+/**
+*	Copyright 2025 Software GmbH (previously Software AG)
+*    
+*    Licensed under the Apache License, Version 2.0 (the "License");
+*    you may not use this file except in compliance with the License.
+*    You may obtain a copy of the License at
+*    
+*      http://www.apache.org/licenses/LICENSE-2.0
+*    
+*    Unless required by applicable law or agreed to in writing, software
+*   distributed under the License is distributed on an "AS IS" BASIS,
+*    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+*    See the License for the specific language governing permissions and
+*    limitations under the License.
+*/
+
+package com.softwareag.aasservice.mysql.dao;
+
+import java.util.Collection;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.rest.core.annotation.RepositoryRestResource;
+
+import com.softwareag.aasservice.mysql.entity.AASPropertyValue;
+
+import jakarta.transaction.Transactional;
+
+// not exported, the index is maintained by AASPropertyIndexService only
+@RepositoryRestResource(exported = false)
+@Transactional
+public interface AASPropertyValueRepository extends JpaRepository<AASPropertyValue, Long> {
+
+    @Modifying
+    @Query("DELETE FROM AASPropertyValue v WHERE v.uploadId IN ?1")
+    int deleteByUploadIdIn(Collection<Long> uploadIds);
+
+    @Modifying
+    @Query("DELETE FROM AASPropertyValue v WHERE v.uploadId IN"
+            + " (SELECT p.uploadId FROM AASProjection p WHERE p.assetId = ?1)")
+    int deleteByAssetId(String assetId);
+
+}
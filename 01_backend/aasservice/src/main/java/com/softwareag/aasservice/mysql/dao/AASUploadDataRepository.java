@@ -0,0 +1,90 @@
+/**
+*	Copyright 2025 Software GmbH (previously Software AG)
+*    
+*    Licensed under the Apache License, Version 2.0 (the "License");
+*    you may not use this file except in compliance with the License.
+*    You may obtain a copy of the License at
+*    
+*      http://www.apache.org/licenses/LICENSE-2.0
+*    
+*    Unless required by applicable law or agreed to in writing, software
+*   distributed under the License is distributed on an "AS IS" BASIS,
+*    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+*    See the License for the specific language governing permissions and
+*    limitations under the License.
+*/
+
+package com.softwareag.aasservice.mysql.dao;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.rest.core.annotation.RepositoryRestResource;
+
+import com.softwareag.aasservice.mysql.entity.AASUploadData;
+
+import jakarta.transaction.Transactional;
+
+// not exported, the reference counts are maintained by AASUploadDataService only
+@RepositoryRestResource(exported = false)
+@Transactional
+public interface AASUploadDataRepository extends JpaRepository<AASUploadData, Long> {
+
+    /**
+     * Where the data is stored, without its bytes.
+     */
+    interface StoredData {
+        String getHash();
+        String getStorage();
+    }
+
+    @Query("SELECT d.hash FROM AASUploadData d WHERE d.id = ?1")
+    Optional<String> findHashById(Long id);
+
+    // reads the committed rows, also when called after the commit of the current transaction
+    @Transactional(Transactional.TxType.REQUIRES_NEW)
+    boolean existsByHashAndStorage(String hash, String storage);
+
+    /**
+     * Increments the reference count of the data with the hash, which stays
+     * locked until the transaction ends. The id of the data is returned by
+     * findLastInsertId afterwards.
+     *
+     * @return 0 if no data has the hash, e.g. because it was just deleted.
+     */
+    @Modifying
+    @Query(value = "UPDATE aas_upload_data SET ref_count = ref_count + 1, id = LAST_INSERT_ID(id)"
+            + " WHERE hash = ?1", nativeQuery = true)
+    int incrementRefCountByHash(String hash);
+
+    /**
+     * Inserts new data with one reference, or increments the reference count
+     * if data with the hash was inserted concurrently. The unique key on the
+     * hash makes a concurrent insert wait until this one is committed. The id
+     * of the data is returned by findLastInsertId afterwards.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO aas_upload_data (hash, ref_count, codec, storage, upload) VALUES (?1, 1, ?2, ?3, ?4)"
+            + " ON DUPLICATE KEY UPDATE ref_count = ref_count + 1, id = LAST_INSERT_ID(id)", nativeQuery = true)
+    int insertOrIncrementRefCount(String hash, String codec, String storage, byte[] upload);
+
+    @Query(value = "SELECT LAST_INSERT_ID()", nativeQuery = true)
+    Long findLastInsertId();
+
+    @Modifying
+    @Query("UPDATE AASUploadData d SET d.refCount = d.refCount - 1 WHERE d.id = ?1")
+    int decrementRefCount(Long id);
+
+    @Query("SELECT d.hash AS hash, d.storage AS storage FROM AASUploadData d WHERE d.id = ?1 AND d.refCount <= 0")
+    Optional<StoredData> findUnreferencedById(Long id);
+
+    @Query("SELECT d.id FROM AASUploadData d WHERE COALESCE(d.storage, 'database') <> ?1 ORDER BY d.id")
+    List<Long> findIdsNotStoredIn(String storage);
+
+    @Modifying
+    @Query("DELETE FROM AASUploadData d WHERE d.id = ?1 AND d.refCount <= 0")
+    int deleteIfUnreferenced(Long id);
+}
@@ -16,10 +16,15 @@
 
 package com.softwareag.aasservice.mysql.dao;
 
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import com.softwareag.aasservice.mysql.entity.AASUpload;
 
@@ -27,11 +32,63 @@ import jakarta.transaction.Transactional;
 
 @Transactional
 public interface AASUploadRepository extends JpaRepository<AASUpload, Long> {
+
+    /**
+     * Latest lastEditDate and number of a set of uploads. Together they change
+     * whenever an upload of the set is added, edited or deleted. For a single
+     * upload, id and version identify its state as well.
+     */
+    interface ModificationState {
+        Date getLastEditDate();
+        Long getCount();
+        Long getId();
+        Long getVersion();
+    }
     
     List<AASUpload> findAll(Specification<AASUpload> spec);
     
     List<AASUpload> findBySender(String sender);
     List<AASUpload> findByAssetId(String assetId);
 
+    @Query("SELECT DISTINCT u.assetId FROM AASUpload u WHERE u.assetId IN ?1")
+    List<String> findAssetIdsIn(Collection<String> assetIds);
+
+    // fetch the stored data together with the uploads, e.g. for deserializing them on other threads
+    @Query("SELECT u FROM AASUpload u LEFT JOIN FETCH u.uploadData WHERE u.id IN ?1")
+    List<AASUpload> findWithUploadDataByIdIn(Collection<Long> ids);
+
+    @Query("SELECT u FROM AASUpload u LEFT JOIN FETCH u.uploadData WHERE u.assetId = ?1")
+    List<AASUpload> findWithUploadDataByAssetId(String assetId);
+
     void deleteByAssetId(String assetId);
+
+    @Query("SELECT u.uploadData.id FROM AASUpload u WHERE u.assetId = ?1 AND u.uploadData IS NOT NULL")
+    List<Long> findUploadDataIdsByAssetId(String assetId);
+
+    @Query("SELECT MAX(u.lastEditDate) AS lastEditDate, COUNT(u) AS count, MAX(u.id) AS id,"
+            + " MAX(u.version) AS version FROM AASUpload u")
+    ModificationState findModificationState();
+
+    @Query("SELECT MAX(u.lastEditDate) AS lastEditDate, COUNT(u) AS count, MAX(u.id) AS id,"
+            + " MAX(u.version) AS version FROM AASUpload u WHERE u.assetId = ?1")
+    ModificationState findModificationStateByAssetId(String assetId);
+
+    Slice<AASUpload> findByIdGreaterThan(Long id, Pageable pageable);
+
+    @Query("SELECT u.id FROM AASUpload u WHERE u.id > ?1 ORDER BY u.id")
+    List<Long> findIdsGreaterThan(Long id, Pageable pageable);
+
+    // locks the rows of the assetId until the transaction ends
+    @Query(value = "SELECT id FROM aas WHERE asset_id = ?1 FOR UPDATE", nativeQuery = true)
+    List<Long> lockByAssetId(String assetId);
+
+    @Query("SELECT u.id FROM AASUpload u WHERE NOT EXISTS (SELECT p FROM AASProjection p WHERE p.uploadId = u.id"
+            + " AND p.indexed = true"
+            + " AND (p.lastEditDate = u.lastEditDate OR (p.lastEditDate IS NULL AND u.lastEditDate IS NULL)))")
+    List<Long> findIdsWithOutdatedProjection();
+
+    @Query("SELECT COUNT(u) FROM AASUpload u WHERE NOT EXISTS (SELECT p FROM AASProjection p WHERE p.uploadId = u.id"
+            + " AND p.indexed = true"
+            + " AND (p.lastEditDate = u.lastEditDate OR (p.lastEditDate IS NULL AND u.lastEditDate IS NULL)))")
+    long countWithOutdatedProjection();
 }
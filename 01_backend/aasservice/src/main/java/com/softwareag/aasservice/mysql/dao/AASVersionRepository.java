@@ -0,0 +1,59 @@
+/**
+*	Copyright 2025 Software GmbH (previously Software AG)
+*    
+*    Licensed under the Apache License, Version 2.0 (the "License");
+*    you may not use this file except in compliance with the License.
+*    You may obtain a copy of the License at
+*    
+*      http://www.apache.org/licenses/LICENSE-2.0
+*    
+*    Unless required by applicable law or agreed to in writing, software
+*   distributed under the License is distributed on an "AS IS" BASIS,
+*    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+*    See the License for the specific language governing permissions and
+*    limitations under the License.
+*/
+
+package com.softwareag.aasservice.mysql.dao;
+
+import java.util.Date;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.rest.core.annotation.RepositoryRestResource;
+
+import com.softwareag.aasservice.mysql.entity.AASVersion;
+
+import jakarta.transaction.Transactional;
+
+// not exported, the history is written by AASVersionService only
+@RepositoryRestResource(exported = false)
+@Transactional
+public interface AASVersionRepository extends JpaRepository<AASVersion, Long> {
+
+    /**
+     * A version without its data.
+     */
+    interface VersionInfo {
+        int getVersion();
+        Date getCreationDate();
+        String getSender();
+        boolean isSnapshot();
+    }
+
+    @Query("SELECT v.version AS version, v.creationDate AS creationDate, v.sender AS sender, v.snapshot AS snapshot"
+            + " FROM AASVersion v WHERE v.assetId = ?1 ORDER BY v.version")
+    List<VersionInfo> findVersionInfoByAssetId(String assetId);
+
+    @Query("SELECT MAX(v.version) FROM AASVersion v WHERE v.assetId = ?1")
+    Integer findLatestVersion(String assetId);
+
+    @Query("SELECT MAX(v.version) FROM AASVersion v WHERE v.assetId = ?1 AND v.snapshot = true AND v.version <= ?2")
+    Integer findSnapshotVersion(String assetId, int version);
+
+    List<AASVersion> findByAssetIdAndVersionBetweenOrderByVersionAsc(String assetId, int from, int to);
+
+    void deleteByAssetId(String assetId);
+
+}
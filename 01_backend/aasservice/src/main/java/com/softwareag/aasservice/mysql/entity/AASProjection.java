@@ -0,0 +1,57 @@
+/**
+*	Copyright 2025 Software GmbH (previously Software AG)
+*    
+*    Licensed under the Apache License, Version 2.0 (the "License");
+*    you may not use this file except in compliance with the License.
+*    You may obtain a copy of the License at
+*    
+*      http://www.apache.org/licenses/LICENSE-2.0
+*    
+*    Unless required by applicable law or agreed to in writing, software
+*   distributed under the License is distributed on an "AS IS" BASIS,
+*    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+*    See the License for the specific language governing permissions and
+*    limitations under the License.
+*/
+
+package com.softwareag.aasservice.mysql.entity;
+
+import java.util.Date;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Lob;
+import jakarta.persistence.Table;
+import jakarta.persistence.Temporal;
+import jakarta.persistence.TemporalType;
+import lombok.Data;
+
+@Entity
+@Table(name = "aas_projection")
+@Data
+public class AASProjection {
+
+    @Id
+    @Column(name="upload_id")
+    private Long uploadId;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name="last_edit_date")
+    private Date lastEditDate;
+
+    @Column(name="assetId")
+    private String assetId;
+
+    @Column(name="sender")
+    private String sender;
+
+    @Lob
+    @Column(name="projection", columnDefinition="LONGTEXT")
+    private String projection;
+
+    // null for projections created before the property index existed
+    @Column(name="indexed")
+    private Boolean indexed;
+
+}
@@ -0,0 +1,72 @@
+/**
+*	Copyright 2025 Software GmbH (previously Software AG)
+*    
+*    Licensed under the Apache License, Version 2.0 (the "License");
+*    you may not use this file except in compliance with the License.
+*    You may obtain a copy of the License at
+*    
+*      http://www.apache.org/licenses/LICENSE-2.0
+*    
+*    Unless required by applicable law or agreed to in writing, software
+*   distributed under the License is distributed on an "AS IS" BASIS,
+*    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+*    See the License for the specific language governing permissions and
+*    limitations under the License.
+*/
+
+package com.softwareag.aasservice.mysql.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+/**
+ * A value of a property in the submodels of an AASUpload which are read for
+ * its AASDataTransferObject. The table "aas_property_index" is maintained
+ * together with the projection of the upload and answers content queries
+ * without deserializing any upload.
+ *
+ * "path" is the idShort path below the submodel, e.g.
+ * "ProductCarbonFootprint01/PCFCO2eq", "id_short" its last segment. Numeric
+ * values are additionally kept in "value_number".
+ */
+@Entity
+@Table(name = "aas_property_index", indexes = {
+        @Index(name = "idx_property_number", columnList = "submodel, id_short, value_number"),
+        @Index(name = "idx_property_string", columnList = "submodel, id_short, value_string"),
+        @Index(name = "idx_property_path", columnList = "submodel, path"),
+        @Index(name = "idx_property_upload", columnList = "upload_id") })
+@Data
+public class AASPropertyValue {
+
+    public static final int MAX_VALUE_LENGTH = 255;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name="id")
+    private Long id;
+
+    @Column(name="upload_id")
+    private Long uploadId;
+
+    @Column(name="submodel", length=64)
+    private String submodel;
+
+    @Column(name="path", length=512)
+    private String path;
+
+    @Column(name="id_short", length=128)
+    private String idShort;
+
+    @Column(name="value_string", length=MAX_VALUE_LENGTH)
+    private String valueString;
+
+    @Column(name="value_number")
+    private Double valueNumber;
+
+}
@@ -21,19 +21,28 @@ import java.util.Date;
 import org.hibernate.annotations.CreationTimestamp;
 import org.springframework.format.annotation.DateTimeFormat;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
-import jakarta.persistence.Lob;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
 import jakarta.persistence.Temporal;
 import jakarta.persistence.TemporalType;
+import jakarta.persistence.Transient;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 
 @Entity
-@Table(name = "aas")
+@Table(name = "aas", uniqueConstraints = @UniqueConstraint(name = "uk_aas_asset_id", columnNames = "assetId"))
 @Data
 public class AASUpload {
     
@@ -59,8 +68,28 @@ public class AASUpload {
     @Column(name="type")
     private String type;
 
-    @Lob
-    @Column(name="upload", columnDefinition="LONGBLOB")
-    private String upload;
+    // incremented on every save, a concurrent save of the same version fails
+    @Version
+    @Column(name="version")
+    private Long version;
+
+    // loaded only when the data is needed, listing uploads does not read it
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name="upload_data_id")
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private AASUploadData uploadData;
+
+    // data set since the upload was loaded, AASUploadService stores it on save
+    @Transient
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private byte[] pendingUpload;
+
+    public void setUpload(byte[] upload) {
+        this.pendingUpload = upload;
+    }
     
 }
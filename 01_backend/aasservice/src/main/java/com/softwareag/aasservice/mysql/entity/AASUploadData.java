@@ -0,0 +1,76 @@
+/**
+*	Copyright 2025 Software GmbH (previously Software AG)
+*    
+*    Licensed under the Apache License, Version 2.0 (the "License");
+*    you may not use this file except in compliance with the License.
+*    You may obtain a copy of the License at
+*    
+*      http://www.apache.org/licenses/LICENSE-2.0
+*    
+*    Unless required by applicable law or agreed to in writing, software
+*   distributed under the License is distributed on an "AS IS" BASIS,
+*    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+*    See the License for the specific language governing permissions and
+*    limitations under the License.
+*/
+
+package com.softwareag.aasservice.mysql.entity;
+
+import com.softwareag.aasservice.data.StorageCodec;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Lob;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+/**
+ * The stored AASX or JSON data of AASUploads. It is kept apart from the
+ * metadata in "aas", so that listing uploads does not read the data. AASX
+ * packages are stored as they are, JSON as UTF-8 text encoded with the
+ * StorageCodec named in "codec". The encoded bytes are kept by the BlobStore
+ * named in "storage", in "upload" for the database.
+ *
+ * The data is content-addressed by the SHA-256 hash of its decoded bytes:
+ * identical data is stored once and shared by all uploads referencing it,
+ * "ref_count" is the number of these uploads.
+ */
+@Entity
+@Table(name = "aas_upload_data")
+@Data
+public class AASUploadData {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name="id")
+    private Long id;
+
+    @Column(name="hash", length=64, unique=true)
+    private String hash;
+
+    @Column(name="ref_count")
+    private long refCount;
+
+    @Lob
+    @Column(name="upload", columnDefinition="LONGBLOB")
+    private byte[] upload;
+
+    // null for data stored before codecs were introduced
+    @Column(name="codec")
+    private String codec;
+
+    // null for data stored before blob stores were introduced, i.e. in the database
+    @Column(name="storage")
+    private String storage;
+
+    public StorageCodec getStorageCodec() {
+        StorageCodec storageCodec = StorageCodec.getCodecByString(codec);
+        if (storageCodec == null)
+            throw new IllegalStateException("Unknown storage codec: " + codec);
+        return storageCodec;
+    }
+
+}
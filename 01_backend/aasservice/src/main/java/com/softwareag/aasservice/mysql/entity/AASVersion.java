@@ -0,0 +1,83 @@
+/**
+*	Copyright 2025 Software GmbH (previously Software AG)
+*    
+*    Licensed under the Apache License, Version 2.0 (the "License");
+*    you may not use this file except in compliance with the License.
+*    You may obtain a copy of the License at
+*    
+*      http://www.apache.org/licenses/LICENSE-2.0
+*    
+*    Unless required by applicable law or agreed to in writing, software
+*   distributed under the License is distributed on an "AS IS" BASIS,
+*    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+*    See the License for the specific language governing permissions and
+*    limitations under the License.
+*/
+
+package com.softwareag.aasservice.mysql.entity;
+
+import java.util.Date;
+
+import com.softwareag.aasservice.data.StorageCodec;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Lob;
+import jakarta.persistence.Table;
+import jakarta.persistence.Temporal;
+import jakarta.persistence.TemporalType;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Data;
+import lombok.ToString;
+
+/**
+ * One version in the history of an AAS. A snapshot holds the whole
+ * environment in the JSON form of aas4j, any other version holds the delta of
+ * EnvironmentDiff against the previous version. Both are encoded with the
+ * StorageCodec named in "codec".
+ */
+@Entity
+@Table(name = "aas_version", uniqueConstraints = @UniqueConstraint(columnNames = { "assetId", "version" }))
+@Data
+public class AASVersion {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name="id")
+    private Long id;
+
+    @Column(name="assetId")
+    private String assetId;
+
+    @Column(name="version")
+    private int version;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name="creation_date")
+    private Date creationDate;
+
+    @Column(name="sender")
+    private String sender;
+
+    @Column(name="snapshot")
+    private boolean snapshot;
+
+    @Lob
+    @Column(name="data", columnDefinition="LONGBLOB")
+    @ToString.Exclude
+    private byte[] data;
+
+    @Column(name="codec")
+    private String codec;
+
+    public StorageCodec getStorageCodec() {
+        StorageCodec storageCodec = StorageCodec.getCodecByString(codec);
+        if (storageCodec == null)
+            throw new IllegalStateException("Unknown storage codec: " + codec);
+        return storageCodec;
+    }
+
+}
@@ -0,0 +1,40 @@
+/**
+*	Copyright 2025 Software GmbH (previously Software AG)
+*    
+*    Licensed under the Apache License, Version 2.0 (the "License");
+*    you may not use this file except in compliance with the License.
+*    You may obtain a copy of the License at
+*    
+*      http://www.apache.org/licenses/LICENSE-2.0
+*    
+*    Unless required by applicable law or agreed to in writing, software
+*   distributed under the License is distributed on an "AS IS" BASIS,
+*    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+*    See the License for the specific language governing permissions and
+*    limitations under the License.
+*/
+
+package com.softwareag.aasservice.mysql.response;
+
+import lombok.Data;
+
+@Data
+public class BulkUploadItemResponse {
+    public BulkUploadItemResponse(String name) {
+        this.name = name;
+    }
+    private String name;
+    private String assetId;
+    private boolean success;
+    private String message;
+
+    public void succeed(String message) {
+        this.success = true;
+        this.message = message;
+    }
+
+    public void fail(String message) {
+        this.success = false;
+        this.message = message;
+    }
+}
@@ -0,0 +1,85 @@
+/**
+*	Copyright 2025 Software GmbH (previously Software AG)
+*    
+*    Licensed under the Apache License, Version 2.0 (the "License");
+*    you may not use this file except in compliance with the License.
+*    You may obtain a copy of the License at
+*    
+*      http://www.apache.org/licenses/LICENSE-2.0
+*    
+*    Unless required by applicable law or agreed to in writing, software
+*   distributed under the License is distributed on an "AS IS" BASIS,
+*    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+*    See the License for the specific language governing permissions and
+*    limitations under the License.
+*/
+
+package com.softwareag.aasservice.mysql.spec;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.softwareag.aasservice.data.PropertyPredicate;
+import com.softwareag.aasservice.mysql.entity.AASProjection;
+import com.softwareag.aasservice.mysql.entity.AASPropertyValue;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+
+public class AASProjectionSpecifications {
+
+    /**
+     * Matches the projections of uploads with a property value in the
+     * property index satisfying the predicate. A "!=" predicate matches the
+     * uploads without any value equal to the given one, including those
+     * without the property, as a property may have several values, e.g. the
+     * languages of a MultiLanguageProperty.
+     */
+    public static Specification<AASProjection> hasProperty(PropertyPredicate predicate) {
+        return (root, query, criteriaBuilder) -> {
+            Subquery<Long> subquery = query.subquery(Long.class);
+            Root<AASPropertyValue> value = subquery.from(AASPropertyValue.class);
+
+            subquery.select(value.get("uploadId")).where(
+                    criteriaBuilder.equal(value.get("submodel"), predicate.getSubmodel()),
+                    criteriaBuilder.equal(value.get(predicate.isPath() ? "path" : "idShort"), predicate.getProperty()),
+                    valueMatches(criteriaBuilder, value, predicate));
+
+            if (predicate.getOperator() == PropertyPredicate.Operator.NOT_EQUALS)
+                return criteriaBuilder.not(root.get("uploadId").in(subquery));
+            return root.get("uploadId").in(subquery);
+        };
+    }
+
+    private static Predicate valueMatches(CriteriaBuilder criteriaBuilder, Root<AASPropertyValue> value,
+            PropertyPredicate predicate) {
+        Expression<Double> number = value.get("valueNumber");
+        Expression<String> string = value.get("valueString");
+
+        switch (predicate.getOperator()) {
+            // the values are compared as written, "12" does not equal "12.0" or "0012"; the uploads with an equal
+            // value are excluded by hasProperty
+            case EQUALS:
+            case NOT_EQUALS:
+                return criteriaBuilder.equal(string, predicate.getValue());
+            case GREATER_THAN:
+                return criteriaBuilder.greaterThan(number, predicate.getNumber());
+            case GREATER_THAN_OR_EQUAL:
+                return criteriaBuilder.greaterThanOrEqualTo(number, predicate.getNumber());
+            case LESS_THAN:
+                return criteriaBuilder.lessThan(number, predicate.getNumber());
+            case LESS_THAN_OR_EQUAL:
+                return criteriaBuilder.lessThanOrEqualTo(number, predicate.getNumber());
+            case CONTAINS:
+            default:
+                return criteriaBuilder.like(string, "%" + escapeLike(predicate.getValue()) + "%", '\\');
+        }
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+}
@@ -16,10 +16,13 @@
 
 package com.softwareag.aasservice.mysql.spec;
 
+import java.util.Arrays;
 import java.util.Date;
+import java.util.List;
 
 import org.springframework.data.jpa.domain.Specification;
 
+import com.softwareag.aasservice.data.DataType;
 import com.softwareag.aasservice.mysql.entity.AASUpload;
 
 public class AASUploadSpecifications {
@@ -40,8 +43,14 @@ public class AASUploadSpecifications {
         return (root, query, criteriaBuilder) -> criteriaBuilder.equal(root.get("sender"), sender);
     }
     
+    // matches the internal formats stored for the exchange format, too
     public static Specification<AASUpload> formatEquals(String format) {
-        return (root, query, criteriaBuilder) -> criteriaBuilder.equal(root.get("type"), format);
+        List<String> types = Arrays.stream(DataType.values())
+                .filter(dataType -> dataType.getExchangeFormat().getFormatString().equals(format))
+                .map(DataType::getFormatString).toList();
+        if (types.isEmpty())
+            return (root, query, criteriaBuilder) -> criteriaBuilder.equal(root.get("type"), format);
+        return (root, query, criteriaBuilder) -> root.get("type").in(types);
     }
 
 }
@@ -0,0 +1,270 @@
+/**
+*	Copyright 2025 Software GmbH (previously Software AG)
+*    
+*    Licensed under the Apache License, Version 2.0 (the "License");
+*    you may not use this file except in compliance with the License.
+*    You may obtain a copy of the License at
+*    
+*      http://www.apache.org/licenses/LICENSE-2.0
+*    
+*    Unless required by applicable law or agreed to in writing, software
+*   distributed under the License is distributed on an "AS IS" BASIS,
+*    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+*    See the License for the specific language governing permissions and
+*    limitations under the License.
+*/
+
+package com.softwareag.aasservice.service;
+
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import com.softwareag.aasservice.data.BulkUploadFile;
+import com.softwareag.aasservice.data.DataType;
+import com.softwareag.aasservice.mysql.dao.AASUploadRepository;
+import com.softwareag.aasservice.mysql.entity.AASUpload;
+import com.softwareag.aasservice.mysql.response.BulkUploadItemResponse;
+
+/**
+ * Uploads many AASX and JSON files at once. The files are processed in
+ * batches of at most "aas.bulk-upload.batch-size" files and
+ * "aas.bulk-upload.max-batch-size" bytes: the files of a batch are validated in parallel on the pool of the
+ * AASDeserializationService, their assetIds are checked with a single query
+ * and the valid uploads are saved in one transaction. If saving a batch
+ * fails, its uploads are saved one by one so that only the failing uploads
+ * are rejected.
+ */
+@Service
+public class AASBulkUploadService {
+
+    @Value("${aas.bulk-upload.batch-size:100}")
+    private int batchSize;
+
+    @Value("${aas.bulk-upload.max-batch-size:256MB}")
+    private DataSize maxBatchSize;
+
+    @Value("${spring.servlet.multipart.max-file-size:1MB}")
+    private DataSize maxFileSize;
+
+    @Autowired
+    private AASUploadRepository uploadRepository;
+
+    @Autowired
+    private AASUploadService uploadService;
+
+    @Autowired
+    private AASDeserializationService deserializationService;
+
+    /**
+     * Uploads the files in the order of the iterator. The files are read from
+     * the iterator batch by batch, so that a large request is never held in
+     * memory as a whole.
+     *
+     * @param files  The files to upload.
+     * @param sender The sender uploading the files.
+     * @return The result of every file in the order of the files.
+     */
+    public List<BulkUploadItemResponse> upload(Iterator<BulkUploadFile> files, String sender) {
+        List<BulkUploadItemResponse> results = new ArrayList<>();
+        Set<String> requestAssetIds = new HashSet<>();
+        List<BulkUploadFile> batch = new ArrayList<>(batchSize);
+        long batchBytes = 0;
+
+        try {
+            while (files.hasNext()) {
+                BulkUploadFile file = files.next();
+                long fileBytes = file.exceedsMaxFileSize() ? 0 : file.getData().length;
+                if (!batch.isEmpty() && batchBytes + fileBytes > maxBatchSize.toBytes()) {
+                    results.addAll(uploadBatch(batch, sender, requestAssetIds));
+                    batch.clear();
+                    batchBytes = 0;
+                }
+                batch.add(file);
+                batchBytes += fileBytes;
+                if (batch.size() >= batchSize) {
+                    results.addAll(uploadBatch(batch, sender, requestAssetIds));
+                    batch.clear();
+                    batchBytes = 0;
+                }
+            }
+        } catch (UncheckedIOException e) {
+            System.err.println("Error: The files of the bulk upload could not be read completely.");
+            e.printStackTrace();
+
+            // the files read so far are complete and are uploaded nevertheless
+            results.addAll(uploadBatch(batch, sender, requestAssetIds));
+            BulkUploadItemResponse result = new BulkUploadItemResponse(null);
+            result.fail("The request could not be read completely! The remaining files were not uploaded.");
+            results.add(result);
+            return results;
+        }
+
+        if (!batch.isEmpty())
+            results.addAll(uploadBatch(batch, sender, requestAssetIds));
+        return results;
+    }
+
+    /**
+     * @return The maximum uncompressed size of a single file in bytes.
+     */
+    public long getMaxFileSize() {
+        return maxFileSize.toBytes();
+    }
+
+    private List<BulkUploadItemResponse> uploadBatch(List<BulkUploadFile> files, String sender,
+            Set<String> requestAssetIds) {
+        List<BulkUploadItemResponse> results = new ArrayList<>(files.size());
+        List<Item> items = new ArrayList<>();
+
+        for (BulkUploadFile file : files) {
+            BulkUploadItemResponse result = new BulkUploadItemResponse(file.getName());
+            results.add(result);
+
+            if (file.exceedsMaxFileSize()) {
+                result.fail("File exceeds its maximum permitted size of " + maxFileSize.toBytes() + " bytes!");
+                continue;
+            }
+            DataType dataType = file.getDataType();
+            if (dataType == null) {
+                result.fail("Unsupported file type! Only .aasx and .json files can be uploaded.");
+                continue;
+            }
+            items.add(new Item(file, dataType, result, createUpload(file.getData(), sender, dataType)));
+        }
+
+        validate(items);
+        rejectDuplicates(items, requestAssetIds);
+        save(items.stream().filter(item -> item.environmentService != null).toList(), sender);
+
+        return results;
+    }
+
+    /**
+     * Deserializes the uploads in parallel. Items which are not a valid AAS
+     * are rejected and keep no environment.
+     */
+    private void validate(List<Item> items) {
+        List<EnvironmentService> environmentServices = deserializationService.deserializeAll(
+                items.stream().map(item -> item.upload).toList(), (upload, envService) -> {
+                    try {
+                        if (envService == null || envService.getAssetID() == null)
+                            return null;
+                        // deserializes the submodels of lazily read environments one by one, so that invalid ones
+                        // are rejected
+                        envService.validate();
+                        return envService;
+                    } catch (RuntimeException e) {
+                        return null;
+                    }
+                });
+
+        for (int i = 0; i < items.size(); i++) {
+            Item item = items.get(i);
+            item.environmentService = environmentServices.get(i);
+            if (item.environmentService == null) {
+                item.result.fail("The uploaded file is not a valid AAS or does not match the specified data type!");
+                continue;
+            }
+            item.upload.setAssetId(item.environmentService.getAssetID());
+            item.result.setAssetId(item.upload.getAssetId());
+        }
+    }
+
+    /**
+     * Rejects the items whose assetId already exists or occurs earlier in the
+     * request. The existing assetIds of the batch are read with one query.
+     */
+    private void rejectDuplicates(List<Item> items, Set<String> requestAssetIds) {
+        Set<String> assetIds = new HashSet<>();
+        items.stream().filter(item -> item.environmentService != null)
+                .forEach(item -> assetIds.add(item.upload.getAssetId()));
+        if (assetIds.isEmpty())
+            return;
+
+        Set<String> existingAssetIds = new HashSet<>(uploadRepository.findAssetIdsIn(assetIds));
+
+        for (Item item : items) {
+            if (item.environmentService == null)
+                continue;
+
+            String assetId = item.upload.getAssetId();
+            if (existingAssetIds.contains(assetId)) {
+                item.reject("The specified AssetID already exists!");
+            } else if (!requestAssetIds.add(assetId)) {
+                item.reject("The AssetID occurs more than once in the request!");
+            }
+        }
+    }
+
+    private void save(List<Item> items, String sender) {
+        if (items.isEmpty())
+            return;
+
+        try {
+            uploadService.saveAll(items.stream().map(item -> item.upload).toList(),
+                    items.stream().map(item -> item.environmentService).toList());
+            items.forEach(item -> item.result.succeed("Asset Administration Shell uploaded successfully!"));
+            return;
+        } catch (RuntimeException e) {
+            System.err.println("Error: A batch of the bulk upload could not be saved, the uploads are saved one by one.");
+            e.printStackTrace();
+        }
+
+        // the files written for the rolled back batch are deleted by the AASUploadDataService, the
+        // uploads below write them again
+        for (Item item : items) {
+            // the upload of the failed batch may have been changed while saving
+            AASUpload upload = createUpload(item.file.getData(), sender, item.dataType);
+            upload.setAssetId(item.upload.getAssetId());
+            try {
+                uploadService.save(upload, item.environmentService);
+                item.result.succeed("Asset Administration Shell uploaded successfully!");
+            } catch (RuntimeException e) {
+                System.err.println("Error: The upload of AAS " + upload.getAssetId() + " could not be saved.");
+                e.printStackTrace();
+                item.result.fail("An error occured while processing the request!");
+            }
+        }
+    }
+
+    private static AASUpload createUpload(byte[] data, String sender, DataType dataType) {
+        AASUpload aasUpload = new AASUpload();
+        aasUpload.setLastEditDate(new Date());
+        aasUpload.setUpload(data);
+        aasUpload.setSender(sender);
+        aasUpload.setType(dataType.getFormatString());
+        return aasUpload;
+    }
+
+    private static class Item {
+
+        private final BulkUploadFile file;
+        private final DataType dataType;
+        private final BulkUploadItemResponse result;
+        private final AASUpload upload;
+        private EnvironmentService environmentService;
+
+        private Item(BulkUploadFile file, DataType dataType, BulkUploadItemResponse result, AASUpload upload) {
+            this.file = file;
+            this.dataType = dataType;
+            this.result = result;
+            this.upload = upload;
+        }
+
+        private void reject(String message) {
+            result.fail(message);
+            environmentService = null;
+        }
+    }
+
+}
@@ -0,0 +1,164 @@
+/**
+*	Copyright 2025 Software GmbH (previously Software AG)
+*    
+*    Licensed under the Apache License, Version 2.0 (the "License");
+*    you may not use this file except in compliance with the License.
+*    You may obtain a copy of the License at
+*    
+*      http://www.apache.org/licenses/LICENSE-2.0
+*    
+*    Unless required by applicable law or agreed to in writing, software
+*   distributed under the License is distributed on an "AS IS" BASIS,
+*    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+*    See the License for the specific language governing permissions and
+*    limitations under the License.
+*/
+
+package com.softwareag.aasservice.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import com.softwareag.aasservice.data.DataType;
+import com.softwareag.aasservice.mysql.entity.AASUpload;
+import com.softwareag.aasservice.service.AASUpload.AASUploadDeserializier;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Deserializes stored AASUploads on a shared, bounded thread pool. Lists of
+ * uploads are deserialized in parallel while the results keep the order of
+ * the uploads. If the queue of the pool is full, the calling thread
+ * deserializes the upload itself. Environments which are still in the
+ * EnvironmentCache are not deserialized again.
+ */
+@Service
+public class AASDeserializationService {
+
+    @Value("${aas.deserialization.pool-size:0}")
+    private int poolSize;
+
+    @Value("${aas.deserialization.queue-capacity:64}")
+    private int queueCapacity;
+
+    @Autowired
+    private EnvironmentCache environmentCache;
+
+    @Autowired
+    private AASUploadDataService dataService;
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void init() {
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("aas-deserializer-");
+        threadFactory.setDaemon(true);
+
+        executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Deserializes the data stored in the upload or restores the cached
+     * environment. The environment is a copy of its own, the EnvironmentCache
+     * keeps a snapshot of it.
+     *
+     * @param upload The stored AASUpload.
+     * @return The EnvironmentService of the upload, null if the data is
+     *         missing, cannot be read or is no valid AAS.
+     */
+    public EnvironmentService deserialize(AASUpload upload) {
+        EnvironmentService environmentService = environmentCache.get(upload);
+        if (environmentService != null)
+            return environmentService;
+
+        DataType dataType = DataType.getDataTypeByString(upload.getType());
+        try {
+            environmentService = dataType == DataType.AASX ? deserializeAASX(upload)
+                    : deserializeStream(upload, dataType);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Error: The data of AAS " + upload.getAssetId() + " could not be read.");
+            e.printStackTrace();
+            return null;
+        }
+        if (environmentService == null)
+            return null;
+        environmentCache.put(upload, environmentService);
+        return environmentService;
+    }
+
+    /**
+     * Reads an AASX package in place, its supplementary files stay in the
+     * stored package and are read from there when they are used.
+     */
+    private EnvironmentService deserializeAASX(AASUpload upload) throws IOException {
+        ByteBuffer aasx = dataService.map(upload);
+        return aasx == null ? null : AASUploadDeserializier.deserialize(aasx);
+    }
+
+    private EnvironmentService deserializeStream(AASUpload upload, DataType dataType) throws IOException {
+        try (InputStream in = dataService.open(upload)) {
+            return in == null ? null : AASUploadDeserializier.deserialize(in, dataType);
+        }
+    }
+
+    /**
+     * Deserializes the uploads in parallel.
+     *
+     * @param uploads The stored AASUploads.
+     * @return The EnvironmentServices in the order of the uploads, null for
+     *         uploads which could not be deserialized.
+     */
+    public List<EnvironmentService> deserializeAll(List<AASUpload> uploads) {
+        return deserializeAll(uploads, (upload, envService) -> envService);
+    }
+
+    /**
+     * Deserializes the uploads in parallel and maps each result on the
+     * deserializing thread, so that the mapping is parallelized as well.
+     *
+     * @param uploads The stored AASUploads.
+     * @param mapper  Maps an upload and its EnvironmentService (null if the
+     *                data is invalid) to the result.
+     * @return The results in the order of the uploads.
+     */
+    public <T> List<T> deserializeAll(List<AASUpload> uploads,
+            BiFunction<AASUpload, EnvironmentService, T> mapper) {
+
+        List<T> results = new ArrayList<>(uploads.size());
+
+        if (uploads.size() == 1) {
+            AASUpload upload = uploads.get(0);
+            results.add(mapper.apply(upload, deserialize(upload)));
+            return results;
+        }
+
+        List<CompletableFuture<T>> futures = new ArrayList<>(uploads.size());
+        uploads.forEach(upload -> futures.add(
+                CompletableFuture.supplyAsync(() -> mapper.apply(upload, deserialize(upload)), executor)));
+
+        futures.forEach(future -> results.add(future.join()));
+        return results;
+    }
+
+}
@@ -0,0 +1,105 @@
+/**
+*	Copyright 2025 Software GmbH (previously Software AG)
+*    
+*    Licensed under the Apache License, Version 2.0 (the "License");
+*    you may not use this file except in compliance with the License.
+*    You may obtain a copy of the License at
+*    
+*      http://www.apache.org/licenses/LICENSE-2.0
+*    
+*    Unless required by applicable law or agreed to in writing, software
+*   distributed under the License is distributed on an "AS IS" BASIS,
+*    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+*    See the License for the specific language governing permissions and
+*    limitations under the License.
+*/
+
+package com.softwareag.aasservice.service;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.springframework.stereotype.Service;
+
+import com.softwareag.aasservice.data.AASDataTransferObject;
+import com.softwareag.aasservice.mysql.entity.AASProjection;
+
+/**
+ * Caches the AASDataTransferObject of every stored AASUpload, so that list
+ * requests do not have to parse the stored projection again as long as the
+ * upload has not changed. An entry is only valid for the lastEditDate it was
+ * created for.
+ */
+@Service
+public class AASProjectionCache {
+
+    private final Map<Long, CachedProjection> projections = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the cached transfer object of the projection or creates it with
+     * the given function, if there is no entry for the current lastEditDate.
+     *
+     * @param projection The stored AASProjection.
+     * @param creator    Creates the transfer object on a cache miss.
+     * @return The transfer object of the upload.
+     */
+    public AASDataTransferObject computeIfAbsent(AASProjection projection,
+            Function<AASProjection, AASDataTransferObject> creator) {
+
+        long editTime = toEditTime(projection.getLastEditDate());
+
+        CachedProjection cached = projections.get(projection.getUploadId());
+        if (cached != null && cached.editTime == editTime)
+            return cached.transferObject;
+
+        AASDataTransferObject transferObject = creator.apply(projection);
+        if (transferObject != null)
+            projections.put(projection.getUploadId(),
+                    new CachedProjection(projection.getAssetId(), editTime, transferObject));
+        return transferObject;
+    }
+
+    /**
+     * Removes the entry of the upload with the given id.
+     *
+     * @param uploadId The id of the AASUpload.
+     */
+    public void evict(Long uploadId) {
+        if (uploadId != null)
+            projections.remove(uploadId);
+    }
+
+    /**
+     * Removes all entries belonging to the given assetId.
+     *
+     * @param assetId The assetId of the AAS.
+     */
+    public void evictByAssetId(String assetId) {
+        projections.values().removeIf(cached -> cached.assetId != null && cached.assetId.equals(assetId));
+    }
+
+    public void clear() {
+        projections.clear();
+    }
+
+    private static long toEditTime(Date lastEditDate) {
+        // Hibernate hands out java.sql.Timestamp, therefore only the time is compared
+        return lastEditDate == null ? Long.MIN_VALUE : lastEditDate.getTime();
+    }
+
+    private static class CachedProjection {
+
+        private final String assetId;
+        private final long editTime;
+        private final AASDataTransferObject transferObject;
+
+        private CachedProjection(String assetId, long editTime, AASDataTransferObject transferObject) {
+            this.assetId = assetId;
+            this.editTime = editTime;
+            this.transferObject = transferObject;
+        }
+    }
+
+}
@@ -0,0 +1,49 @@
+/**
+*	Copyright 2025 Software GmbH (previously Software AG)
+*    
+*    Licensed under the Apache License, Version 2.0 (the "License");
+*    you may not use this file except in compliance with the License.
+*    You may obtain a copy of the License at
+*    
+*      http://www.apache.org/licenses/LICENSE-2.0
+*    
+*    Unless required by applicable law or agreed to in writing, software
+*   distributed under the License is distributed on an "AS IS" BASIS,
+*    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+*    See the License for the specific language governing permissions and
+*    limitations under the License.
+*/
+
+package com.softwareag.aasservice.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Projects uploads whose projection is missing or outdated in the background,
+ * so that the read endpoints never deserialize an AAS. The first run starts
+ * right after startup and projects the uploads stored before the projection
+ * table existed, later runs pick up rows edited outside of the service. The
+ * delay between the runs is configured with aas.projection.refresh-interval
+ * in milliseconds.
+ */
+@Component
+public class AASProjectionRefresher {
+
+    @Autowired
+    private AASProjectionService projectionService;
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${aas.projection.refresh-interval:60000}")
+    public void refresh() {
+        try {
+            int refreshed = projectionService.refreshOutdated();
+            if (refreshed > 0)
+                System.out.println("Refreshed the projection of " + refreshed + " AAS uploads.");
+        } catch (RuntimeException e) {
+            System.err.println("Error: The outdated projections could not be refreshed.");
+            e.printStackTrace();
+        }
+    }
+
+}
@@ -0,0 +1,368 @@
+/**
+*	Copyright 2025 Software GmbH (previously Software AG)
+*    
+*    Licensed under the Apache License, Version 2.0 (the "License");
+*    you may not use this file except in compliance with the License.
+*    You may obtain a copy of the License at
+*    
+*      http://www.apache.org/licenses/LICENSE-2.0
+*    
+*    Unless required by applicable law or agreed to in writing, software
+*   distributed under the License is distributed on an "AS IS" BASIS,
+*    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+*    See the License for the specific language governing permissions and
+*    limitations under the License.
+*/
+
+package com.softwareag.aasservice.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.softwareag.aasservice.data.AASDataTransferObject;
+import com.softwareag.aasservice.data.CursorPage;
+import com.softwareag.aasservice.data.PropertyPredicate;
+import com.softwareag.aasservice.mysql.dao.AASProjectionRepository;
+import com.softwareag.aasservice.mysql.dao.AASUploadRepository;
+import com.softwareag.aasservice.mysql.entity.AASProjection;
+import com.softwareag.aasservice.mysql.entity.AASPropertyValue;
+import com.softwareag.aasservice.mysql.entity.AASUpload;
+import com.softwareag.aasservice.mysql.spec.AASProjectionSpecifications;
+import com.softwareag.aasservice.utils.KeysetCursor;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Maintains the AASDataTransferObject of every AASUpload in the table
+ * "aas_projection". The projection is created when an upload is saved, so
+ * that reading the AAS list is a plain SQL read without deserializing the
+ * stored AASX or JSON data. The property index of the upload is replaced
+ * together with its projection.
+ *
+ * Reads never create projections. Uploads whose projection is outdated are
+ * re-projected in the background by the AASProjectionRefresher; until then
+ * reads return their outdated projection, and uploads without any projection,
+ * e.g. rows stored before the table existed, are left out of the results.
+ */
+@Service
+public class AASProjectionService {
+
+    private static final int REFRESH_BATCH_SIZE = 64;
+
+    @Autowired
+    private AASProjectionRepository projectionRepository;
+
+    @Autowired
+    private AASUploadRepository uploadRepository;
+
+    @Autowired
+    private AASProjectionCache projectionCache;
+
+    @Autowired
+    private AASPropertyIndexService propertyIndexService;
+
+    @Autowired
+    private AASDeserializationService deserializationService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Creates the projection of the saved upload from its environment.
+     *
+     * @param upload             The saved AASUpload.
+     * @param environmentService The environment stored in the upload.
+     */
+    public void update(AASUpload upload, EnvironmentService environmentService) {
+        AASProjection projection = createProjection(upload, environmentService);
+        if (projection != null) {
+            save(projection);
+            propertyIndexService.replace(List.of(upload.getId()),
+                    AASPropertyIndexService.createValues(upload.getId(), environmentService));
+        }
+    }
+
+    /**
+     * Creates the projections of new uploads. The projections are persisted
+     * without looking them up first, so that they are inserted in JDBC
+     * batches.
+     *
+     * @param uploads             The saved AASUploads without a projection.
+     * @param environmentServices The environments stored in the uploads, in
+     *                            the order of the uploads.
+     */
+    public void createAll(List<AASUpload> uploads, List<EnvironmentService> environmentServices) {
+        List<Long> uploadIds = new ArrayList<>();
+        List<AASPropertyValue> values = new ArrayList<>();
+        for (int i = 0; i < uploads.size(); i++) {
+            AASUpload upload = uploads.get(i);
+            AASProjection projection = createProjection(upload, environmentServices.get(i));
+            if (projection == null)
+                continue;
+            entityManager.persist(projection);
+            uploadIds.add(upload.getId());
+            values.addAll(AASPropertyIndexService.createValues(upload.getId(), environmentServices.get(i)));
+        }
+        entityManager.flush();
+        propertyIndexService.replace(uploadIds, values);
+    }
+
+    /**
+     * Retrieves the transfer objects of all uploads, ordered by upload id.
+     *
+     * @param submodelIdShorts The submodels to include, null for all.
+     * @return List of AASDataTransferObject representing AAS data.
+     */
+    public List<AASDataTransferObject> getAll(Collection<String> submodelIdShorts) {
+        return toTransferObjects(projectionRepository.findAllByOrderByUploadIdAsc(), submodelIdShorts);
+    }
+
+    /**
+     * Retrieves one page of transfer objects, ordered by upload id.
+     *
+     * @param afterId          The upload id after which the page starts.
+     * @param size             The maximum number of transfer objects on the page.
+     * @param submodelIdShorts The submodels to include, null for all.
+     * @return The page and the cursor of the following page.
+     */
+    public CursorPage<AASDataTransferObject> getPage(Long afterId, int size, Collection<String> submodelIdShorts) {
+        List<Long> uploadIds = uploadRepository.findIdsGreaterThan(afterId, PageRequest.of(0, size + 1));
+        boolean hasNext = uploadIds.size() > size;
+        if (hasNext)
+            uploadIds = uploadIds.subList(0, size);
+
+        if (uploadIds.isEmpty())
+            return new CursorPage<>(new ArrayList<>(), null);
+
+        List<AASDataTransferObject> transferObjects = toTransferObjects(
+                projectionRepository.findByUploadIdInOrderByUploadIdAsc(uploadIds), submodelIdShorts);
+
+        return new CursorPage<>(transferObjects,
+                hasNext ? KeysetCursor.encode(uploadIds.get(uploadIds.size() - 1)) : null);
+    }
+
+    /**
+     * Retrieves the transfer objects of all uploads with the given assetId.
+     *
+     * @param assetId          The assetId of the AAS.
+     * @param submodelIdShorts The submodels to include, null for all.
+     * @return List of AASDataTransferObject representing AAS data.
+     */
+    public List<AASDataTransferObject> getByAssetId(String assetId, Collection<String> submodelIdShorts) {
+        return toTransferObjects(projectionRepository.findByAssetIdOrderByUploadIdAsc(assetId), submodelIdShorts);
+    }
+
+    /**
+     * Retrieves the transfer objects of the uploads matching all predicates,
+     * ordered by upload id. The predicates are answered by the property index,
+     * so uploads not yet indexed by the {@link AASProjectionRefresher} are not
+     * found.
+     *
+     * @param predicates       The predicates on property values.
+     * @param submodelIdShorts The submodels to include, null for all.
+     * @return List of AASDataTransferObject representing AAS data.
+     */
+    public List<AASDataTransferObject> search(List<PropertyPredicate> predicates,
+            Collection<String> submodelIdShorts) {
+        Specification<AASProjection> spec = Specification.where(null);
+        for (PropertyPredicate predicate : predicates)
+            spec = spec.and(AASProjectionSpecifications.hasProperty(predicate));
+
+        return toTransferObjects(projectionRepository.findAll(spec, Sort.by("uploadId")), submodelIdShorts);
+    }
+
+    /**
+     * Writes the transfer objects of all uploads, ordered by upload id, as
+     * newline-delimited JSON. The projections are streamed from the database
+     * and written one by one, so the list is never held in memory. If only some
+     * submodels are requested, each projection is reduced before it is written.
+     *
+     * @param out              The stream to write to.
+     * @param submodelIdShorts The submodels to include, null for all.
+     * @throws IOException If writing to the stream fails.
+     */
+    public void writeAll(OutputStream out, Collection<String> submodelIdShorts) throws IOException {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<AASProjection> projections = projectionRepository.streamAllByOrderByUploadIdAsc()) {
+                    projections.forEach(projection -> {
+                        if (submodelIdShorts == null)
+                            writeLine(out, projection.getProjection());
+                        else
+                            writeLine(out, projection, submodelIdShorts);
+                        entityManager.detach(projection);
+                    });
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        out.flush();
+    }
+
+    public void delete(Long uploadId) {
+        propertyIndexService.delete(uploadId);
+        if (projectionRepository.existsById(uploadId))
+            projectionRepository.deleteById(uploadId);
+        projectionCache.evict(uploadId);
+    }
+
+    public void deleteByAssetId(String assetId) {
+        propertyIndexService.deleteByAssetId(assetId);
+        projectionRepository.deleteByAssetId(assetId);
+        projectionCache.evictByAssetId(assetId);
+    }
+
+    /**
+     * Creates the projections of uploads which have none yet or whose
+     * projection is older than the upload, e.g. rows stored before the
+     * projection table existed.
+     *
+     * @return The number of uploads whose projection was outdated.
+     */
+    public int refreshOutdated() {
+        List<Long> uploadIds = uploadRepository.findIdsWithOutdatedProjection();
+        refresh(uploadIds);
+        return uploadIds.size();
+    }
+
+    /**
+     * @param uploadIds The ids of the uploads with an outdated projection.
+     */
+    private void refresh(List<Long> uploadIds) {
+        for (int from = 0; from < uploadIds.size(); from += REFRESH_BATCH_SIZE) {
+            List<AASUpload> uploads = uploadRepository
+                    .findWithUploadDataByIdIn(uploadIds.subList(from, Math.min(from + REFRESH_BATCH_SIZE, uploadIds.size())));
+
+            List<ProjectedUpload> projectedUploads = deserializationService.deserializeAll(uploads,
+                    (upload, envService) -> {
+                        if (envService == null) {
+                            System.err.println("Error: The upload of AAS " + upload.getAssetId()
+                                    + " could not be deserialized.");
+                            return null;
+                        }
+                        AASProjection projection = createProjection(upload, envService);
+                        return projection == null ? null
+                                : new ProjectedUpload(projection,
+                                        AASPropertyIndexService.createValues(upload.getId(), envService));
+                    });
+
+            List<Long> projectedIds = new ArrayList<>();
+            List<AASPropertyValue> values = new ArrayList<>();
+            projectedUploads.stream().filter(Objects::nonNull).forEach(projectedUpload -> {
+                save(projectedUpload.projection);
+                projectedIds.add(projectedUpload.projection.getUploadId());
+                values.addAll(projectedUpload.values);
+            });
+            propertyIndexService.replace(projectedIds, values);
+        }
+    }
+
+    private AASProjection createProjection(AASUpload upload, EnvironmentService environmentService) {
+        AASDataTransferObject transferObject = environmentService.createAASDataTransferObject(upload.getSender());
+
+        AASProjection projection = new AASProjection();
+        projection.setUploadId(upload.getId());
+        projection.setLastEditDate(upload.getLastEditDate());
+        projection.setAssetId(upload.getAssetId());
+        projection.setSender(upload.getSender());
+        projection.setIndexed(true);
+
+        try {
+            projection.setProjection(objectMapper.writeValueAsString(transferObject));
+        } catch (JsonProcessingException e) {
+            System.err.println("Error: The projection of AAS " + upload.getAssetId() + " could not be written.");
+            e.printStackTrace();
+            return null;
+        }
+        return projection;
+    }
+
+    private void save(AASProjection projection) {
+        projectionRepository.save(projection);
+        projectionCache.evict(projection.getUploadId());
+    }
+
+    private void writeLine(OutputStream out, String json) {
+        try {
+            out.write(json.getBytes(StandardCharsets.UTF_8));
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeLine(OutputStream out, AASProjection projection, Collection<String> submodelIdShorts) {
+        AASDataTransferObject transferObject = projectionCache.computeIfAbsent(projection,
+                this::readTransferObject);
+        if (transferObject == null)
+            return;
+
+        try {
+            writeLine(out, objectMapper.writeValueAsString(transferObject.selectSubmodels(submodelIdShorts)));
+        } catch (JsonProcessingException e) {
+            System.err.println("Error: The projection of AAS " + projection.getAssetId() + " could not be written.");
+            e.printStackTrace();
+        }
+    }
+
+    private List<AASDataTransferObject> toTransferObjects(List<AASProjection> projections,
+            Collection<String> submodelIdShorts) {
+        List<AASDataTransferObject> transferObjects = new ArrayList<>();
+        projections.forEach(projection -> transferObjects
+                .add(projectionCache.computeIfAbsent(projection, this::readTransferObject)));
+        transferObjects.removeIf(Objects::isNull);
+        // the cached transfer objects are shared, therefore only copies are reduced
+        transferObjects.replaceAll(transferObject -> transferObject.selectSubmodels(submodelIdShorts));
+        return transferObjects;
+    }
+
+    private AASDataTransferObject readTransferObject(AASProjection projection) {
+        try {
+            return objectMapper.readValue(projection.getProjection(), AASDataTransferObject.class);
+        } catch (JsonProcessingException e) {
+            System.err.println("Error: The projection of AAS " + projection.getAssetId() + " could not be read.");
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    private static class ProjectedUpload {
+
+        private final AASProjection projection;
+        private final List<AASPropertyValue> values;
+
+        private ProjectedUpload(AASProjection projection, List<AASPropertyValue> values) {
+            this.projection = projection;
+            this.values = values;
+        }
+    }
+
+}
@@ -0,0 +1,163 @@
+/**
+*	Copyright 2025 Software GmbH (previously Software AG)
+*    
+*    Licensed under the Apache License, Version 2.0 (the "License");
+*    you may not use this file except in compliance with the License.
+*    You may obtain a copy of the License at
+*    
+*      http://www.apache.org/licenses/LICENSE-2.0
+*    
+*    Unless required by applicable law or agreed to in writing, software
+*   distributed under the License is distributed on an "AS IS" BASIS,
+*    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+*    See the License for the specific language governing permissions and
+*    limitations under the License.
+*/
+
+package com.softwareag.aasservice.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.eclipse.digitaltwin.aas4j.v3.model.LangStringTextType;
+import org.eclipse.digitaltwin.aas4j.v3.model.MultiLanguageProperty;
+import org.eclipse.digitaltwin.aas4j.v3.model.Property;
+import org.eclipse.digitaltwin.aas4j.v3.model.ReferenceElement;
+import org.eclipse.digitaltwin.aas4j.v3.model.Submodel;
+import org.eclipse.digitaltwin.aas4j.v3.model.SubmodelElement;
+import org.eclipse.digitaltwin.aas4j.v3.model.SubmodelElementCollection;
+import org.eclipse.digitaltwin.aas4j.v3.model.SubmodelElementList;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.softwareag.aasservice.data.AASDataTransferObject;
+import com.softwareag.aasservice.data.PropertyPredicate;
+import com.softwareag.aasservice.mysql.dao.AASPropertyValueRepository;
+import com.softwareag.aasservice.mysql.entity.AASPropertyValue;
+
+import jakarta.transaction.Transactional;
+
+/**
+ * Maintains the property index in the table "aas_property_index". The index
+ * holds the values of the properties, multi-language properties and reference
+ * elements of the submodels read for the AASDataTransferObject, including
+ * those in nested collections. It is replaced whenever the projection of an
+ * upload is created.
+ */
+@Service
+@Transactional
+public class AASPropertyIndexService {
+
+    private static final String INSERT = "INSERT INTO aas_property_index"
+            + " (upload_id, submodel, path, id_short, value_string, value_number) VALUES (?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private AASPropertyValueRepository valueRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Collects the indexed property values of an environment.
+     *
+     * @param uploadId           The id of the saved AASUpload.
+     * @param environmentService The environment stored in the upload.
+     * @return The property values, in document order within each submodel.
+     */
+    public static List<AASPropertyValue> createValues(Long uploadId, EnvironmentService environmentService) {
+        List<AASPropertyValue> values = new ArrayList<>();
+        if (environmentService.getSubmodels() == null)
+            return values;
+
+        // looked up by idShort, so that the other submodels are not deserialized
+        for (String submodelIdShort : AASDataTransferObject.SUBMODEL_ID_SHORTS) {
+            Submodel submodel = environmentService.getSubmodelOfIdShort(submodelIdShort);
+            if (submodel != null)
+                collectValues(values, uploadId, submodelIdShort, "", submodel.getSubmodelElements());
+        }
+        return values;
+    }
+
+    /**
+     * Replaces the indexed values of the uploads. The values are inserted in
+     * JDBC batches.
+     *
+     * @param uploadIds The ids of the uploads whose values are replaced.
+     * @param values    The new values of these uploads.
+     */
+    public void replace(Collection<Long> uploadIds, List<AASPropertyValue> values) {
+        if (uploadIds.isEmpty())
+            return;
+
+        valueRepository.deleteByUploadIdIn(uploadIds);
+        jdbcTemplate.batchUpdate(INSERT, values, 500, (statement, value) -> {
+            statement.setLong(1, value.getUploadId());
+            statement.setString(2, value.getSubmodel());
+            statement.setString(3, value.getPath());
+            statement.setString(4, value.getIdShort());
+            statement.setString(5, value.getValueString());
+            statement.setObject(6, value.getValueNumber());
+        });
+    }
+
+    public void delete(Long uploadId) {
+        valueRepository.deleteByUploadIdIn(List.of(uploadId));
+    }
+
+    // has to run before the projections of the asset are deleted
+    public void deleteByAssetId(String assetId) {
+        valueRepository.deleteByAssetId(assetId);
+    }
+
+    private static void collectValues(List<AASPropertyValue> values, Long uploadId, String submodel,
+            String parentPath, List<SubmodelElement> elements) {
+        if (elements == null)
+            return;
+
+        for (int i = 0; i < elements.size(); i++) {
+            SubmodelElement element = elements.get(i);
+            // the elements of a SubmodelElementList may have no idShort
+            String idShort = element.getIdShort() != null ? element.getIdShort() : String.valueOf(i);
+            String path = parentPath.isEmpty() ? idShort : parentPath + "/" + idShort;
+            if (path.length() > 512)
+                continue;
+
+            if (element instanceof SubmodelElementCollection) {
+                collectValues(values, uploadId, submodel, path, ((SubmodelElementCollection) element).getValue());
+            } else if (element instanceof SubmodelElementList) {
+                collectValues(values, uploadId, submodel, path, ((SubmodelElementList) element).getValue());
+            } else if (element instanceof Property) {
+                addValue(values, uploadId, submodel, path, idShort, ((Property) element).getValue());
+            } else if (element instanceof MultiLanguageProperty) {
+                List<LangStringTextType> texts = ((MultiLanguageProperty) element).getValue();
+                if (texts != null)
+                    texts.forEach(text -> addValue(values, uploadId, submodel, path, idShort, text.getText()));
+            } else if (element instanceof ReferenceElement) {
+                ReferenceElement referenceElement = (ReferenceElement) element;
+                if (referenceElement.getValue() != null && referenceElement.getValue().getKeys() != null
+                        && !referenceElement.getValue().getKeys().isEmpty())
+                    addValue(values, uploadId, submodel, path, idShort,
+                            referenceElement.getValue().getKeys().get(0).getValue());
+            }
+        }
+    }
+
+    private static void addValue(List<AASPropertyValue> values, Long uploadId, String submodel, String path,
+            String idShort, String value) {
+        // longer values, e.g. descriptions, cannot be queried
+        if (value == null || value.length() > AASPropertyValue.MAX_VALUE_LENGTH)
+            return;
+
+        AASPropertyValue propertyValue = new AASPropertyValue();
+        propertyValue.setUploadId(uploadId);
+        propertyValue.setSubmodel(submodel);
+        propertyValue.setPath(path);
+        propertyValue.setIdShort(idShort);
+        propertyValue.setValueString(value);
+        propertyValue.setValueNumber(PropertyPredicate.parseNumber(value));
+        values.add(propertyValue);
+    }
+
+}
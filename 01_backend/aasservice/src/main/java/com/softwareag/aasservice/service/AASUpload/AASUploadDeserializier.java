@@ -16,17 +16,18 @@
 
 package com.softwareag.aasservice.service.AASUpload;
 
-import java.nio.charset.StandardCharsets;
-import java.util.Base64;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
 
 import com.softwareag.aasservice.data.DataType;
 import com.softwareag.aasservice.data.repositories.AASXDataRepository;
 import com.softwareag.aasservice.data.repositories.JsonDataRepository;
+import com.softwareag.aasservice.data.repositories.SmileDataRepository;
 import com.softwareag.aasservice.service.EnvironmentService;
 
 public class AASUploadDeserializier {
 
-    public static EnvironmentService deserialize(String data, DataType dataType) {
+    public static EnvironmentService deserialize(byte[] data, DataType dataType) {
 
         switch (dataType) {
 
@@ -34,6 +35,8 @@ public class AASUploadDeserializier {
                 return deserializeAASX(data);
             case JSON:
                 return deserializeJSON(data);
+            case SMILE:
+                return new SmileDataRepository().read(data);
             default:
                 break;
         }
@@ -41,14 +44,36 @@ public class AASUploadDeserializier {
         return null;
     }
 
-    private static EnvironmentService deserializeAASX(String data) {
+    public static EnvironmentService deserialize(InputStream in, DataType dataType) {
+
+        switch (dataType) {
+
+            case AASX:
+                return new AASXDataRepository().read(in);
+            case JSON:
+                return new JsonDataRepository().read(in);
+            case SMILE:
+                return new SmileDataRepository().read(in);
+            default:
+                break;
+        }
+
+        return null;
+    }
+
+    public static EnvironmentService deserialize(ByteBuffer aasx) {
+        return new AASXDataRepository().read(aasx);
+    }
+
+    // the repositories return null for invalid data, which must not be wrapped
+    private static EnvironmentService deserializeAASX(byte[] data) {
         AASXDataRepository aasxDataRepository = new AASXDataRepository();
-        return new EnvironmentService(aasxDataRepository.read(Base64.getDecoder().decode(data)));
+        return aasxDataRepository.read(data);
     }
 
-    private static EnvironmentService deserializeJSON(String data) {
+    private static EnvironmentService deserializeJSON(byte[] data) {
         JsonDataRepository jsonDataRepository = new JsonDataRepository();
-        return new EnvironmentService(jsonDataRepository.read(data.getBytes(StandardCharsets.UTF_8)));
+        return jsonDataRepository.read(data);
     }
 
 }
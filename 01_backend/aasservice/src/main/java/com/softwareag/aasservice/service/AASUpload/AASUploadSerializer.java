@@ -16,13 +16,12 @@
 
 package com.softwareag.aasservice.service.AASUpload;
 
-import java.nio.charset.StandardCharsets;
-import java.util.Base64;
 import java.util.Date;
 
 import com.softwareag.aasservice.data.DataType;
 import com.softwareag.aasservice.data.repositories.AASXDataRepository;
 import com.softwareag.aasservice.data.repositories.JsonDataRepository;
+import com.softwareag.aasservice.data.repositories.SmileDataRepository;
 import com.softwareag.aasservice.mysql.entity.AASUpload;
 import com.softwareag.aasservice.service.EnvironmentService;
 
@@ -34,6 +33,8 @@ public class AASUploadSerializer {
                 return serializeAASX(aasUpload, environmentService, sender);
             case JSON:
                 return serializeJSON(aasUpload, environmentService, sender);
+            case SMILE:
+                return serializeSmile(aasUpload, environmentService, sender);
             default:
                 throw new IllegalArgumentException("Unsupported data type: " + dataType);
         }
@@ -59,9 +60,17 @@ public class AASUploadSerializer {
         return aasUpload;
     }
 
+    private static AASUpload serializeSmile(AASUpload aasUpload, EnvironmentService service, String sender) {
+        SmileDataRepository smileDataRepository = new SmileDataRepository();
+        byte[] data = smileDataRepository.write(service);
+
+        populateAASUpload(aasUpload, service, sender, data, "smile");
+        return aasUpload;
+    }
+
     private static void populateAASUpload(AASUpload aasUpload, EnvironmentService service, String sender, byte[] data, String type) {
         aasUpload.setLastEditDate(new Date());
-        aasUpload.setUpload(type.equals("json") ? new String(data, StandardCharsets.UTF_8) : Base64.getEncoder().encodeToString(data));
+        aasUpload.setUpload(data);
         aasUpload.setAssetId(service.getAssetID());
         aasUpload.setSender(sender);
         aasUpload.setType(type);
@@ -18,46 +18,46 @@ package com.softwareag.aasservice.service.AASUpload;
 
 
 import com.softwareag.aasservice.data.DataType;
-import com.softwareag.aasservice.data.repositories.AASXDataRepository;
-import com.softwareag.aasservice.data.repositories.JsonDataRepository;
 import com.softwareag.aasservice.service.EnvironmentService;
 
 public class AASUploadValidator {
 
     public static boolean isValidAAS(byte[] data, String assetId, DataType dataType) {
-        return performValidation(data, assetId, dataType);
+        return parse(data, assetId, dataType) != null;
     }
 
-    private static boolean performValidation(byte[] data, String assetId, DataType dataType) {
-
-        switch (dataType) {
-
-            case AASX:
-                AASXDataRepository aasxDataRepository = new AASXDataRepository();
-                try {
-                    EnvironmentService envService = new EnvironmentService(aasxDataRepository.read(data));
-                    if(!envService.getAssetID().equals(assetId))
-                        return false;
-                } catch (Exception ex) {
-                    return false;
-                }
-                break;
-
-            case JSON:
-                JsonDataRepository jsonDataRepository = new JsonDataRepository();
-                try {
-                    EnvironmentService envService = new EnvironmentService(jsonDataRepository.read(data));
-                    if(!envService.getAssetID().equals(assetId))
-                        return false;
-                } catch (Exception ex) {
-                    return false;
-                }
-                break;
-
-            default:
-                break;
+    /**
+     * Parses the data once it is known to belong to the assetId. The assetId
+     * is read by the AssetIdExtractor first, so that a mismatching upload is
+     * rejected without being parsed.
+     *
+     * @return The environment of the data, to be reused for storing the
+     *         upload, null if the data is not a valid AAS of the assetId.
+     */
+    public static EnvironmentService parse(byte[] data, String assetId, DataType dataType) {
+        if (!assetId.equals(AssetIdExtractor.extract(data, dataType)))
+            return null;
+
+        try {
+            EnvironmentService envService = AASUploadDeserializier.deserialize(data, dataType);
+            return isValidAAS(envService, assetId) ? envService : null;
+        } catch (Exception ex) {
+            return null;
         }
+    }
 
-        return true;
+    /**
+     * Validates an environment which is parsed already.
+     */
+    public static boolean isValidAAS(EnvironmentService envService, String assetId) {
+        try {
+            if (envService == null || !envService.getAssetID().equals(assetId))
+                return false;
+            // the submodels are read lazily, invalid ones fail here
+            envService.validate();
+            return true;
+        } catch (Exception ex) {
+            return false;
+        }
     }
 }
@@ -0,0 +1,132 @@
+/**
+*	Copyright 2025 Software GmbH (previously Software AG)
+*    
+*    Licensed under the Apache License, Version 2.0 (the "License");
+*    you may not use this file except in compliance with the License.
+*    You may obtain a copy of the License at
+*    
+*      http://www.apache.org/licenses/LICENSE-2.0
+*    
+*    Unless required by applicable law or agreed to in writing, software
+*   distributed under the License is distributed on an "AS IS" BASIS,
+*    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+*    See the License for the specific language governing permissions and
+*    limitations under the License.
+*/
+
+package com.softwareag.aasservice.service.AASUpload;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.softwareag.aasservice.data.DataType;
+import com.softwareag.aasservice.data.repositories.AASCodecs;
+import com.softwareag.aasservice.data.repositories.AASXPackage;
+
+/**
+ * Reads the id of the first AssetAdministrationShell of an upload without
+ * deserializing the environment. JSON and Smile are read by a streaming
+ * parser, the XML part of an AASX package by a StAX reader, and reading stops
+ * as soon as the id is found. An upload can therefore be rejected cheaply, an
+ * upload whose id matches still has to be validated as a whole.
+ */
+public class AssetIdExtractor {
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = createInputFactory();
+
+    /**
+     * @return The id of the first shell, null if the upload has no shell,
+     *         cannot be read or its data type is unknown.
+     */
+    public static String extract(byte[] data, DataType dataType) {
+        if (dataType == null)
+            return null;
+
+        try {
+            switch (dataType) {
+                case AASX:
+                    return extractFromAASX(data);
+                case JSON:
+                    return extractFromJson(AASCodecs.JSON_MAPPER.getFactory().createParser(data));
+                case SMILE:
+                    return extractFromJson(AASCodecs.SMILE_MAPPER.getFactory().createParser(data));
+                default:
+                    return null;
+            }
+        } catch (IOException | XMLStreamException e) {
+            return null;
+        }
+    }
+
+    private static String extractFromJson(JsonParser parser) throws IOException {
+        try (parser) {
+            if (parser.nextToken() != JsonToken.START_OBJECT)
+                return null;
+
+            // the shells may follow the submodels, which are skipped without being bound
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (!"assetAdministrationShells".equals(field)) {
+                    parser.skipChildren();
+                    continue;
+                }
+
+                if (value != JsonToken.START_ARRAY || parser.nextToken() != JsonToken.START_OBJECT)
+                    return null;
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String shellField = parser.currentName();
+                    JsonToken shellValue = parser.nextToken();
+                    if ("id".equals(shellField))
+                        return shellValue == JsonToken.VALUE_STRING ? parser.getText() : null;
+                    parser.skipChildren();
+                }
+                return null;
+            }
+            return null;
+        }
+    }
+
+    private static String extractFromAASX(byte[] data) throws IOException, XMLStreamException {
+        try (InputStream xml = AASXPackage.read(ByteBuffer.wrap(data)).openXMLPart()) {
+            XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(xml);
+            try {
+                // the id is a direct child of the shell, the ids of nested elements are skipped
+                int depth = 0;
+                int shellDepth = -1;
+                while (reader.hasNext()) {
+                    int event = reader.next();
+                    if (event == XMLStreamConstants.END_ELEMENT) {
+                        if (depth-- == shellDepth)
+                            return null;
+                    } else if (event == XMLStreamConstants.START_ELEMENT) {
+                        depth++;
+                        if (shellDepth < 0 && "assetAdministrationShell".equals(reader.getLocalName()))
+                            shellDepth = depth;
+                        else if (shellDepth > 0 && depth == shellDepth + 1 && "id".equals(reader.getLocalName()))
+                            return reader.getElementText();
+                    }
+                }
+                return null;
+            } finally {
+                reader.close();
+            }
+        }
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+
+}
@@ -0,0 +1,248 @@
+/**
+*	Copyright 2025 Software GmbH (previously Software AG)
+*    
+*    Licensed under the Apache License, Version 2.0 (the "License");
+*    you may not use this file except in compliance with the License.
+*    You may obtain a copy of the License at
+*    
+*      http://www.apache.org/licenses/LICENSE-2.0
+*    
+*    Unless required by applicable law or agreed to in writing, software
+*   distributed under the License is distributed on an "AS IS" BASIS,
+*    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+*    See the License for the specific language governing permissions and
+*    limitations under the License.
+*/
+
+package com.softwareag.aasservice.service;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.softwareag.aasservice.data.StorageCodec;
+import com.softwareag.aasservice.utils.SHA256;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Migrates the data of uploads stored by earlier versions:
+ * <ul>
+ * <li>data still in the column "aas.upload" is moved to the table
+ * "aas_upload_data",</li>
+ * <li>AASX packages stored as Base64 text are decoded to their raw bytes,</li>
+ * <li>data without a content hash is hashed, and duplicates are merged into
+ * one shared row,</li>
+ * <li>uploads without a version get the initial version 0.</li>
+ * </ul>
+ * The migration runs on startup, after the schema has been updated and before
+ * any request is handled. Already migrated rows are skipped, so an interrupted
+ * migration continues on the next start.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class AASUploadDataMigration {
+
+    private static final int BATCH_SIZE = 64;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PostConstruct
+    public void migrate() {
+        moveUploadData();
+        decodeBase64Uploads();
+        hashUploadData();
+        initializeVersions();
+    }
+
+    private void moveUploadData() {
+        Integer legacyColumns = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM information_schema.columns"
+                + " WHERE table_schema = DATABASE() AND table_name = 'aas' AND column_name = 'upload'",
+                Integer.class);
+        if (legacyColumns == null || legacyColumns == 0)
+            return;
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        int migrated = 0;
+
+        List<Long> uploadIds;
+        do {
+            uploadIds = jdbcTemplate.queryForList("SELECT id FROM aas WHERE upload_data_id IS NULL"
+                    + " AND upload IS NOT NULL ORDER BY id LIMIT " + BATCH_SIZE, Long.class);
+
+            for (Long uploadId : uploadIds)
+                transactionTemplate.executeWithoutResult(status -> moveUploadData(uploadId));
+            migrated += uploadIds.size();
+        } while (uploadIds.size() == BATCH_SIZE);
+
+        if (migrated > 0)
+            System.out.println("Moved the data of " + migrated + " AAS uploads to aas_upload_data.");
+    }
+
+    private void decodeBase64Uploads() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        int migrated = 0;
+
+        // an AASX package is a zip file and starts with "PK", its Base64 text with "UEsD"
+        long lastId = 0;
+        List<Long> dataIds;
+        do {
+            dataIds = jdbcTemplate.queryForList("SELECT d.id FROM aas_upload_data d"
+                    + " JOIN aas a ON a.upload_data_id = d.id WHERE a.type = 'aasx'"
+                    + " AND LEFT(d.upload, 2) <> 'PK' AND d.id > ? ORDER BY d.id LIMIT " + BATCH_SIZE,
+                    Long.class, lastId);
+
+            for (Long dataId : dataIds) {
+                Boolean decoded = transactionTemplate.execute(status -> decodeBase64Upload(dataId));
+                if (Boolean.TRUE.equals(decoded))
+                    migrated++;
+                lastId = dataId;
+            }
+        } while (dataIds.size() == BATCH_SIZE);
+
+        if (migrated > 0)
+            System.out.println("Decoded the Base64 data of " + migrated + " AASX uploads.");
+    }
+
+    private boolean decodeBase64Upload(Long dataId) {
+        byte[] upload = jdbcTemplate.queryForObject("SELECT upload FROM aas_upload_data WHERE id = ?",
+                byte[].class, dataId);
+        try {
+            jdbcTemplate.update("UPDATE aas_upload_data SET upload = ? WHERE id = ?",
+                    Base64.getDecoder().decode(upload), dataId);
+            return true;
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error: The data " + dataId + " is neither an AASX package nor Base64 text.");
+            return false;
+        }
+    }
+
+    private void hashUploadData() {
+        dropUniqueUploadDataIndexes();
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        int migrated = 0;
+
+        long lastId = 0;
+        List<Long> dataIds;
+        do {
+            dataIds = jdbcTemplate.queryForList("SELECT id FROM aas_upload_data WHERE hash IS NULL"
+                    + " AND upload IS NOT NULL AND id > ? ORDER BY id LIMIT " + BATCH_SIZE, Long.class, lastId);
+
+            for (Long dataId : dataIds) {
+                Boolean hashed = transactionTemplate.execute(status -> hashUploadData(dataId));
+                if (Boolean.TRUE.equals(hashed))
+                    migrated++;
+                lastId = dataId;
+            }
+        } while (dataIds.size() == BATCH_SIZE);
+
+        if (migrated > 0)
+            System.out.println("Added the content hash to the data of " + migrated + " AAS uploads.");
+    }
+
+    /**
+     * Uploads saved before versioning have no version, which Spring Data would
+     * take for new entities. The unique key on the assetId cannot be created
+     * while an assetId is stored more than once, these have to be cleaned up
+     * manually.
+     */
+    private void initializeVersions() {
+        int initialized = jdbcTemplate.update("UPDATE aas SET version = 0 WHERE version IS NULL");
+        if (initialized > 0)
+            System.out.println("Initialized the version of " + initialized + " AAS uploads.");
+
+        List<String> duplicateAssetIds = jdbcTemplate.queryForList(
+                "SELECT asset_id FROM aas GROUP BY asset_id HAVING COUNT(*) > 1", String.class);
+        if (!duplicateAssetIds.isEmpty())
+            System.err.println("Error: The following AssetIDs are stored more than once and are not protected"
+                    + " against concurrent submissions: " + String.join(", ", duplicateAssetIds));
+    }
+
+    /**
+     * The data used to be mapped one-to-one, which created a unique key on
+     * "aas.upload_data_id". Shared data needs a plain index instead, which the
+     * foreign key requires before the unique key can be dropped.
+     */
+    private void dropUniqueUploadDataIndexes() {
+        List<String> uniqueIndexes = jdbcTemplate.queryForList("SELECT DISTINCT index_name"
+                + " FROM information_schema.statistics WHERE table_schema = DATABASE() AND table_name = 'aas'"
+                + " AND column_name = 'upload_data_id' AND non_unique = 0", String.class);
+        if (uniqueIndexes.isEmpty())
+            return;
+
+        Integer indexes = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM information_schema.statistics"
+                + " WHERE table_schema = DATABASE() AND table_name = 'aas' AND column_name = 'upload_data_id'"
+                + " AND non_unique = 1", Integer.class);
+        if (indexes == null || indexes == 0)
+            jdbcTemplate.execute("CREATE INDEX idx_aas_upload_data_id ON aas (upload_data_id)");
+
+        for (String uniqueIndex : uniqueIndexes)
+            jdbcTemplate.execute("ALTER TABLE aas DROP INDEX `" + uniqueIndex + "`");
+    }
+
+    private boolean hashUploadData(Long dataId) {
+        Map<String, Object> data = jdbcTemplate.queryForMap("SELECT upload, codec FROM aas_upload_data WHERE id = ?",
+                dataId);
+
+        StorageCodec codec = StorageCodec.getCodecByString((String) data.get("codec"));
+        if (codec == null) {
+            System.err.println("Error: The data " + dataId + " has the unknown codec " + data.get("codec") + ".");
+            return false;
+        }
+
+        String hash;
+        try {
+            hash = SHA256.hashBytes(codec.decode((byte[]) data.get("upload")));
+        } catch (Exception e) {
+            System.err.println("Error: The content hash of the data " + dataId + " could not be computed.");
+            e.printStackTrace();
+            return false;
+        }
+
+        long sharedId = dataId;
+        List<Long> existingIds = jdbcTemplate.queryForList("SELECT id FROM aas_upload_data WHERE hash = ?",
+                Long.class, hash);
+        if (existingIds.isEmpty()) {
+            jdbcTemplate.update("UPDATE aas_upload_data SET hash = ? WHERE id = ?", hash, dataId);
+        } else {
+            sharedId = existingIds.get(0);
+            jdbcTemplate.update("UPDATE aas SET upload_data_id = ? WHERE upload_data_id = ?", sharedId, dataId);
+            jdbcTemplate.update("DELETE FROM aas_upload_data WHERE id = ?", dataId);
+        }
+
+        jdbcTemplate.update("UPDATE aas_upload_data SET ref_count = (SELECT COUNT(*) FROM aas WHERE upload_data_id = ?)"
+                + " WHERE id = ?", sharedId, sharedId);
+        return true;
+    }
+
+    private void moveUploadData(Long uploadId) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    "INSERT INTO aas_upload_data (upload, ref_count) SELECT upload, 1 FROM aas WHERE id = ?",
+                    Statement.RETURN_GENERATED_KEYS);
+            statement.setLong(1, uploadId);
+            return statement;
+        }, keyHolder);
+
+        jdbcTemplate.update("UPDATE aas SET upload_data_id = ?, upload = NULL WHERE id = ?",
+                keyHolder.getKey().longValue(), uploadId);
+    }
+
+}
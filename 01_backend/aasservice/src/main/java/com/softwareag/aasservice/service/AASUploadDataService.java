@@ -0,0 +1,357 @@
+/**
+*	Copyright 2025 Software GmbH (previously Software AG)
+*    
+*    Licensed under the Apache License, Version 2.0 (the "License");
+*    you may not use this file except in compliance with the License.
+*    You may obtain a copy of the License at
+*    
+*      http://www.apache.org/licenses/LICENSE-2.0
+*    
+*    Unless required by applicable law or agreed to in writing, software
+*   distributed under the License is distributed on an "AS IS" BASIS,
+*    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+*    See the License for the specific language governing permissions and
+*    limitations under the License.
+*/
+
+package com.softwareag.aasservice.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.IntConsumer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.softwareag.aasservice.data.StorageCodec;
+import com.softwareag.aasservice.mysql.dao.AASUploadDataRepository;
+import com.softwareag.aasservice.mysql.dao.AASUploadDataRepository.StoredData;
+import com.softwareag.aasservice.mysql.entity.AASUpload;
+import com.softwareag.aasservice.mysql.entity.AASUploadData;
+import com.softwareag.aasservice.utils.SHA256;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.transaction.Transactional;
+
+/**
+ * Stores the data of AASUploads content-addressed. Data which is already
+ * stored is not written again, the upload only references it and its
+ * reference count is incremented. Data is deleted once no upload references
+ * it anymore.
+ *
+ * New data is written to the BlobStore selected by "aas.storage.blob-store",
+ * existing data is read from the store it was written to.
+ *
+ * As the bytes are addressed by their hash, a store may reuse bytes whose
+ * deletion is pending, e.g. a file whose row was deleted by a committed
+ * release. Writing and deleting the bytes of a hash are therefore serialized,
+ * and the bytes are not deleted while a transaction which wrote or reused them
+ * is not completed or while a row with their hash exists.
+ */
+@Service
+@Transactional
+public class AASUploadDataService {
+
+    @Autowired
+    private AASUploadDataRepository dataRepository;
+
+    @Autowired
+    private List<BlobStore> blobStores;
+
+    @Value("${aas.storage.blob-store:" + DatabaseBlobStore.NAME + "}")
+    private String blobStoreName;
+
+    private final Map<String, BlobStore> blobStoresByName = new HashMap<>();
+
+    // the number of uncompleted transactions which wrote the bytes of a hash, by store and hash
+    private final Map<String, Integer> pendingWrites = new HashMap<>();
+
+    private final Object[] hashLocks = new Object[64];
+
+    @PostConstruct
+    public void init() {
+        blobStores.forEach(blobStore -> blobStoresByName.put(blobStore.getName(), blobStore));
+        for (int i = 0; i < hashLocks.length; i++)
+            hashLocks[i] = new Object();
+        getBlobStore(blobStoreName);
+    }
+
+    /**
+     * Stores the data of an upload which referenced the data with the given id
+     * so far. If the data did not change, nothing is written.
+     *
+     * Existing data is referenced by incrementing its reference count, which
+     * locks its row, so that a concurrent release cannot delete it anymore. If
+     * it was deleted just before, the count cannot be incremented and the data
+     * is stored again. New data is inserted or, if the same data was inserted
+     * concurrently, referenced in one statement.
+     *
+     * @param previousDataId The id of the data referenced so far, null for a
+     *                       new upload.
+     * @param upload         The new data.
+     * @param codec          The codec to store the data with, if it is not
+     *                       stored yet.
+     * @return The data to reference.
+     */
+    public AASUploadData store(Long previousDataId, byte[] upload, StorageCodec codec) {
+        String hash = hash(upload);
+
+        // the upload references the data already, so it cannot be deleted concurrently
+        if (previousDataId != null && hash.equals(dataRepository.findHashById(previousDataId).orElse(null)))
+            return dataRepository.getReferenceById(previousDataId);
+
+        if (dataRepository.incrementRefCountByHash(hash) > 0)
+            return dataRepository.getReferenceById(dataRepository.findLastInsertId());
+
+        AASUploadData data = new AASUploadData();
+        data.setHash(hash);
+        data.setCodec(codec.getCodecString());
+        write(data, codec.encode(upload), getBlobStore(blobStoreName));
+        dataRepository.insertOrIncrementRefCount(hash, data.getCodec(), data.getStorage(), data.getUpload());
+        return dataRepository.getReferenceById(dataRepository.findLastInsertId());
+    }
+
+    /**
+     * Releases the reference of an upload to the data with the given id. The
+     * upload must not reference the data in the database anymore.
+     *
+     * @param dataId The id of the data, may be null.
+     */
+    public void release(Long dataId) {
+        if (dataId == null)
+            return;
+
+        // the row stays locked until the transaction ends, a concurrent store waits for it
+        if (dataRepository.decrementRefCount(dataId) == 0)
+            return;
+        Optional<StoredData> data = dataRepository.findUnreferencedById(dataId);
+        if (data.isEmpty())
+            return;
+
+        BlobStore blobStore = getBlobStore(data.get().getStorage());
+        dataRepository.deleteIfUnreferenced(dataId);
+        afterCommit(() -> delete(data.get().getHash(), blobStore));
+    }
+
+    /**
+     * Opens the data of the upload, which is decoded while it is read. Data set
+     * on the upload since it was loaded is returned as it is. Does not need a
+     * transaction if the data of the upload is loaded already.
+     *
+     * @param upload The AASUpload.
+     * @return The decoded data, null if the upload has no data.
+     * @throws IOException If the data cannot be read.
+     */
+    @Transactional(Transactional.TxType.SUPPORTS)
+    public InputStream open(AASUpload upload) throws IOException {
+        if (upload.getPendingUpload() != null)
+            return new ByteArrayInputStream(upload.getPendingUpload());
+
+        AASUploadData data = upload.getUploadData();
+        if (data == null)
+            return null;
+        return data.getStorageCodec().decode(getBlobStore(data).open(data));
+    }
+
+    /**
+     * Returns the decoded data of the upload as a read-only buffer. Data
+     * stored without codec, e.g. every AASX package, is memory-mapped or
+     * wrapped as it is stored, other data is decoded to the heap. Does not
+     * need a transaction if the data of the upload is loaded already.
+     *
+     * @param upload The AASUpload.
+     * @return The decoded data, null if the upload has no data.
+     * @throws IOException If the data cannot be read.
+     */
+    @Transactional(Transactional.TxType.SUPPORTS)
+    public ByteBuffer map(AASUpload upload) throws IOException {
+        if (upload.getPendingUpload() != null)
+            return ByteBuffer.wrap(upload.getPendingUpload()).asReadOnlyBuffer();
+
+        AASUploadData data = upload.getUploadData();
+        if (data == null)
+            return null;
+        if (data.getStorageCodec() == StorageCodec.IDENTITY)
+            return getBlobStore(data).map(data);
+
+        try (InputStream in = open(upload)) {
+            return ByteBuffer.wrap(in.readAllBytes()).asReadOnlyBuffer();
+        }
+    }
+
+    /**
+     * Writes the decoded data of the upload to the stream. Data stored without
+     * codec, e.g. every AASX package, is transferred without being decoded.
+     *
+     * @param upload The AASUpload.
+     * @param out    The stream to write to.
+     * @throws IOException If the data cannot be read or written.
+     */
+    @Transactional(Transactional.TxType.SUPPORTS)
+    public void transferTo(AASUpload upload, OutputStream out) throws IOException {
+        AASUploadData data = upload.getUploadData();
+        if (upload.getPendingUpload() == null && data != null
+                && data.getStorageCodec() == StorageCodec.IDENTITY) {
+            getBlobStore(data).transferTo(data, out);
+            return;
+        }
+
+        try (InputStream in = open(upload)) {
+            if (in != null)
+                in.transferTo(out);
+        }
+    }
+
+    /**
+     * Moves the data with the given id to the configured BlobStore, if it is
+     * stored elsewhere.
+     *
+     * @param dataId The id of the data.
+     * @return True if the data was moved.
+     * @throws IOException If the data cannot be read or written.
+     */
+    public boolean moveToConfiguredBlobStore(Long dataId) throws IOException {
+        AASUploadData data = dataRepository.findById(dataId).orElse(null);
+        BlobStore target = getBlobStore(blobStoreName);
+        if (data == null || getBlobStore(data) == target)
+            return false;
+
+        BlobStore source = getBlobStore(data);
+        byte[] content;
+        try (InputStream in = source.open(data)) {
+            content = in.readAllBytes();
+        }
+
+        write(data, content, target);
+        // the database keeps the bytes in the row itself
+        if (DatabaseBlobStore.NAME.equals(source.getName()))
+            data.setUpload(null);
+        dataRepository.save(data);
+
+        String hash = data.getHash();
+        afterCommit(() -> delete(hash, source));
+        return true;
+    }
+
+    public String getBlobStoreName() {
+        return blobStoreName;
+    }
+
+    /**
+     * Writes the bytes, which are protected from deletion until the current
+     * transaction is completed. A store may skip the write if it has the bytes
+     * of the hash already. If the transaction is rolled back, the bytes are
+     * deleted again unless another row or transaction uses them, so that
+     * failed uploads leave no files behind.
+     */
+    private void write(AASUploadData data, byte[] content, BlobStore blobStore) {
+        String hash = data.getHash();
+        String pendingWrite = blobStore.getName() + "/" + hash;
+        synchronized (getHashLock(hash)) {
+            synchronized (pendingWrites) {
+                pendingWrites.merge(pendingWrite, 1, Integer::sum);
+            }
+            afterCompletion(status -> {
+                synchronized (pendingWrites) {
+                    pendingWrites.computeIfPresent(pendingWrite, (key, count) -> count > 1 ? count - 1 : null);
+                }
+                if (status == TransactionSynchronization.STATUS_ROLLED_BACK)
+                    delete(hash, blobStore);
+            });
+
+            try {
+                blobStore.write(data, content);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        data.setStorage(blobStore.getName());
+    }
+
+    /**
+     * Deletes the bytes of the hash from the store unless they were written
+     * again, i.e. a transaction which wrote them is not completed yet or a row
+     * with the hash in the store was committed since the deletion was
+     * requested.
+     */
+    private void delete(String hash, BlobStore blobStore) {
+        synchronized (getHashLock(hash)) {
+            try {
+                synchronized (pendingWrites) {
+                    if (pendingWrites.containsKey(blobStore.getName() + "/" + hash))
+                        return;
+                }
+                if (dataRepository.existsByHashAndStorage(hash, blobStore.getName()))
+                    return;
+                blobStore.delete(hash);
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Error: The data " + hash + " could not be deleted from the "
+                        + blobStore.getName() + " blob store.");
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private Object getHashLock(String hash) {
+        return hashLocks[Math.floorMod(hash.hashCode(), hashLocks.length)];
+    }
+
+    private static void afterCompletion(IntConsumer consumer) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            consumer.accept(TransactionSynchronization.STATUS_COMMITTED);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                consumer.accept(status);
+            }
+        });
+    }
+
+    // files must not be deleted before the rows referencing them are gone
+    private static void afterCommit(Runnable runnable) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            runnable.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                runnable.run();
+            }
+        });
+    }
+
+    private BlobStore getBlobStore(AASUploadData data) {
+        return getBlobStore(data.getStorage());
+    }
+
+    private BlobStore getBlobStore(String name) {
+        BlobStore blobStore = blobStoresByName.get(name == null ? DatabaseBlobStore.NAME : name);
+        if (blobStore == null)
+            throw new IllegalStateException("Unknown blob store: " + name);
+        return blobStore;
+    }
+
+    private static String hash(byte[] upload) {
+        try {
+            return SHA256.hashBytes(upload);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
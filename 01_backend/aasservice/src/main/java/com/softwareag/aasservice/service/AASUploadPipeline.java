@@ -0,0 +1,82 @@
+/**
+*	Copyright 2025 Software GmbH (previously Software AG)
+*    
+*    Licensed under the Apache License, Version 2.0 (the "License");
+*    you may not use this file except in compliance with the License.
+*    You may obtain a copy of the License at
+*    
+*      http://www.apache.org/licenses/LICENSE-2.0
+*    
+*    Unless required by applicable law or agreed to in writing, software
+*   distributed under the License is distributed on an "AS IS" BASIS,
+*    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+*    See the License for the specific language governing permissions and
+*    limitations under the License.
+*/
+
+package com.softwareag.aasservice.service;
+
+import java.util.Date;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.softwareag.aasservice.data.DataType;
+import com.softwareag.aasservice.mysql.dao.AASUploadRepository;
+import com.softwareag.aasservice.mysql.entity.AASUpload;
+import com.softwareag.aasservice.service.AASUpload.AASUploadValidator;
+
+/**
+ * Uploads a single AAS, parsing it only once:
+ * <ol>
+ * <li>an upload whose assetId exists already is rejected,</li>
+ * <li>the assetId of the upload is read without parsing it, a mismatching
+ * upload is rejected,</li>
+ * <li>the upload is parsed and validated,</li>
+ * <li>the parsed environment is passed on to the AASUploadService, which
+ * creates the projection, the property index and the first version from it
+ * and caches it, while the data is stored as it was uploaded.</li>
+ * </ol>
+ */
+@Service
+public class AASUploadPipeline {
+
+    public enum Result {
+        UPLOADED,
+        DUPLICATE,
+        INVALID
+    }
+
+    @Autowired
+    private AASUploadRepository uploadRepository;
+
+    @Autowired
+    private AASUploadService uploadService;
+
+    /**
+     * @param data     The uploaded AAS.
+     * @param assetId  The assetId the AAS has to have.
+     * @param sender   The sender uploading the AAS.
+     * @param dataType The format of the AAS.
+     * @return The result of the upload.
+     */
+    public Result upload(byte[] data, String assetId, String sender, DataType dataType) {
+        if (!uploadRepository.findByAssetId(assetId).isEmpty())
+            return Result.DUPLICATE;
+
+        EnvironmentService environmentService = AASUploadValidator.parse(data, assetId, dataType);
+        if (environmentService == null)
+            return Result.INVALID;
+
+        AASUpload aasUpload = new AASUpload();
+        aasUpload.setLastEditDate(new Date());
+        aasUpload.setUpload(data);
+        aasUpload.setAssetId(assetId);
+        aasUpload.setSender(sender);
+        aasUpload.setType(dataType.getFormatString());
+
+        uploadService.save(aasUpload, environmentService);
+        return Result.UPLOADED;
+    }
+
+}
@@ -0,0 +1,165 @@
+/**
+*	Copyright 2025 Software GmbH (previously Software AG)
+*    
+*    Licensed under the Apache License, Version 2.0 (the "License");
+*    you may not use this file except in compliance with the License.
+*    You may obtain a copy of the License at
+*    
+*      http://www.apache.org/licenses/LICENSE-2.0
+*    
+*    Unless required by applicable law or agreed to in writing, software
+*   distributed under the License is distributed on an "AS IS" BASIS,
+*    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+*    See the License for the specific language governing permissions and
+*    limitations under the License.
+*/
+
+package com.softwareag.aasservice.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.softwareag.aasservice.data.DataType;
+import com.softwareag.aasservice.data.StorageCodec;
+import com.softwareag.aasservice.mysql.dao.AASUploadRepository;
+import com.softwareag.aasservice.mysql.entity.AASUpload;
+import com.softwareag.aasservice.mysql.entity.AASUploadData;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.transaction.Transactional;
+
+/**
+ * Saves and deletes AASUploads together with the data derived from them.
+ */
+@Service
+@Transactional
+public class AASUploadService {
+
+    @Autowired
+    private AASUploadRepository uploadRepository;
+
+    @Autowired
+    private AASUploadDataService dataService;
+
+    @Autowired
+    private AASProjectionService projectionService;
+
+    @Autowired
+    private EnvironmentCache environmentCache;
+
+    @Autowired
+    private AASVersionService versionService;
+
+    @Value("${aas.storage.json-codec:gzip}")
+    private String jsonCodecString;
+
+    private StorageCodec jsonCodec;
+
+    @PostConstruct
+    public void init() {
+        jsonCodec = StorageCodec.getCodecByString(jsonCodecString);
+        if (jsonCodec == null)
+            throw new IllegalArgumentException("Unknown storage codec: " + jsonCodecString);
+    }
+
+    /**
+     * Saves the upload, updates its projection, records the environment in the
+     * version history and caches the environment.
+     * New data is stored by the AASUploadDataService, JSON with the configured
+     * StorageCodec.
+     *
+     * @param upload             The AASUpload to save.
+     * @param environmentService The environment stored in the upload.
+     * @return The saved AASUpload.
+     */
+    public AASUpload save(AASUpload upload, EnvironmentService environmentService) {
+        Long releasedDataId = storeUpload(upload);
+        AASUpload savedUpload = uploadRepository.saveAndFlush(upload);
+        dataService.release(releasedDataId);
+        projectionService.update(savedUpload, environmentService);
+        versionService.record(savedUpload, environmentService);
+        environmentCache.put(savedUpload, environmentService);
+        return savedUpload;
+    }
+
+    /**
+     * Saves new uploads, creates their projections and the first versions of
+     * their history in one transaction. The projections are inserted in JDBC
+     * batches. The environments are not cached, so that a bulk upload does not
+     * evict the environments which are actually read.
+     *
+     * @param uploads             The new AASUploads to save.
+     * @param environmentServices The environments stored in the uploads, in
+     *                            the order of the uploads.
+     * @return The saved AASUploads.
+     */
+    public List<AASUpload> saveAll(List<AASUpload> uploads, List<EnvironmentService> environmentServices) {
+        List<Long> releasedDataIds = new ArrayList<>();
+        for (AASUpload upload : uploads) {
+            Long releasedDataId = storeUpload(upload);
+            if (releasedDataId != null)
+                releasedDataIds.add(releasedDataId);
+        }
+
+        List<AASUpload> savedUploads = uploadRepository.saveAll(uploads);
+        uploadRepository.flush();
+        releasedDataIds.forEach(dataService::release);
+        projectionService.createAll(savedUploads, environmentServices);
+        for (int i = 0; i < savedUploads.size(); i++)
+            versionService.record(savedUploads.get(i), environmentServices.get(i));
+        return savedUploads;
+    }
+
+    public void delete(AASUpload upload) {
+        Long dataId = getUploadDataId(upload);
+        uploadRepository.delete(upload);
+        uploadRepository.flush();
+        dataService.release(dataId);
+        projectionService.delete(upload.getId());
+        versionService.deleteByAssetId(upload.getAssetId());
+        environmentCache.evict(upload.getId());
+    }
+
+    public void deleteByAssetId(String assetId) {
+        List<Long> dataIds = uploadRepository.findUploadDataIdsByAssetId(assetId);
+        uploadRepository.deleteByAssetId(assetId);
+        uploadRepository.flush();
+        dataIds.forEach(dataService::release);
+        projectionService.deleteByAssetId(assetId);
+        versionService.deleteByAssetId(assetId);
+        environmentCache.evictByAssetId(assetId);
+    }
+
+    /**
+     * Stores the data set on the upload since it was loaded.
+     *
+     * @param upload The AASUpload to save.
+     * @return The id of the data the upload referenced before, which has to be
+     *         released after saving, or null.
+     */
+    private Long storeUpload(AASUpload upload) {
+        if (upload.getPendingUpload() == null)
+            return null;
+
+        // AASX packages are zip files already and stay as they are
+        StorageCodec codec = DataType.AASX.getFormatString().equals(upload.getType()) ? StorageCodec.IDENTITY
+                : jsonCodec;
+
+        Long previousDataId = getUploadDataId(upload);
+        AASUploadData data = dataService.store(previousDataId, upload.getPendingUpload(), codec);
+        upload.setUploadData(data);
+        upload.setPendingUpload(null);
+
+        return data.getId().equals(previousDataId) ? null : previousDataId;
+    }
+
+    // the id of a lazy reference is known without loading the data
+    private static Long getUploadDataId(AASUpload upload) {
+        return upload.getUploadData() == null ? null : upload.getUploadData().getId();
+    }
+
+}
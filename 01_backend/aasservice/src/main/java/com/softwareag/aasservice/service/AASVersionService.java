@@ -0,0 +1,304 @@
+/**
+*	Copyright 2025 Software GmbH (previously Software AG)
+*    
+*    Licensed under the Apache License, Version 2.0 (the "License");
+*    you may not use this file except in compliance with the License.
+*    You may obtain a copy of the License at
+*    
+*      http://www.apache.org/licenses/LICENSE-2.0
+*    
+*    Unless required by applicable law or agreed to in writing, software
+*   distributed under the License is distributed on an "AS IS" BASIS,
+*    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+*    See the License for the specific language governing permissions and
+*    limitations under the License.
+*/
+
+package com.softwareag.aasservice.service;
+
+import java.io.IOException;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import com.softwareag.aasservice.data.AASVersionMetadata;
+import com.softwareag.aasservice.data.StorageCodec;
+import com.softwareag.aasservice.data.repositories.AASCodecs;
+import com.softwareag.aasservice.mysql.dao.AASUploadRepository;
+import com.softwareag.aasservice.mysql.dao.AASVersionRepository;
+import com.softwareag.aasservice.mysql.entity.AASUpload;
+import com.softwareag.aasservice.mysql.entity.AASVersion;
+import com.softwareag.aasservice.utils.EnvironmentDiff;
+
+import jakarta.transaction.Transactional;
+
+/**
+ * Keeps the version history of every AAS in the table "aas_version". Each
+ * saved environment is stored as the delta of EnvironmentDiff against the
+ * previous version, and every snapshot-interval versions as a snapshot of the
+ * whole environment. A version is therefore reconstructed from at most
+ * snapshot-interval stored versions. A delta which is not smaller than the
+ * snapshot is replaced by the snapshot.
+ *
+ * The history covers the environment, the supplementary files of AASX
+ * packages are not part of it.
+ *
+ * The flattened environments of the latest versions of the recently saved
+ * AAS are kept in memory once their transactions are committed, so that the
+ * next version of such an AAS is diffed against them instead of replaying
+ * the stored versions while the AAS is locked.
+ */
+@Service
+@Transactional
+public class AASVersionService {
+
+    private static final StorageCodec CODEC = StorageCodec.GZIP;
+
+    @Value("${aas.history.snapshot-interval:10}")
+    private int snapshotInterval;
+
+    @Value("${aas.history.state-cache-size:32}")
+    private int stateCacheSize;
+
+    // the latest recorded state by assetId, least recently used first
+    private final LinkedHashMap<String, RecordedState> latestStates = new LinkedHashMap<>(16, 0.75f, true);
+
+    @Autowired
+    private AASVersionRepository versionRepository;
+
+    @Autowired
+    private AASUploadRepository uploadRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Stores the environment of the saved upload as the next version of its
+     * AAS. Nothing is stored if the environment did not change. The upload
+     * of the AAS is locked until the transaction ends, so that concurrent
+     * saves of the AAS are numbered one after the other.
+     *
+     * @param upload             The saved AASUpload.
+     * @param environmentService The environment stored in the upload.
+     */
+    public void record(AASUpload upload, EnvironmentService environmentService) {
+        if (environmentService == null || upload.getAssetId() == null)
+            return;
+
+        String assetId = upload.getAssetId();
+        byte[] snapshot;
+        LinkedHashMap<String, JsonNode> state;
+        try {
+            ObjectNode environment = readTree(environmentService);
+            snapshot = encode(environment);
+            state = EnvironmentDiff.flatten(environment);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Error: The version of AAS " + assetId + " could not be written.");
+            e.printStackTrace();
+            return;
+        }
+
+        AASVersion version = new AASVersion();
+        version.setAssetId(assetId);
+        version.setCreationDate(new Date());
+        version.setSender(upload.getSender());
+        version.setCodec(CODEC.getCodecString());
+        version.setSnapshot(true);
+        version.setData(snapshot);
+
+        uploadRepository.lockByAssetId(assetId);
+        Integer latestVersion = versionRepository.findLatestVersion(assetId);
+        if (latestVersion == null) {
+            version.setVersion(1);
+        } else {
+            version.setVersion(latestVersion + 1);
+
+            LinkedHashMap<String, JsonNode> previousState = getLatestState(assetId, latestVersion);
+            if (previousState != null) {
+                JsonNode delta = EnvironmentDiff.diff(previousState, state);
+                if (EnvironmentDiff.isEmpty(delta))
+                    return;
+
+                Integer snapshotVersion = versionRepository.findSnapshotVersion(assetId, latestVersion);
+                if (version.getVersion() - snapshotVersion < snapshotInterval) {
+                    try {
+                        byte[] deltaData = encode(delta);
+                        if (deltaData.length < snapshot.length) {
+                            version.setSnapshot(false);
+                            version.setData(deltaData);
+                        }
+                    } catch (IOException e) {
+                        // the snapshot is stored instead
+                        e.printStackTrace();
+                    }
+                }
+            }
+        }
+
+        versionRepository.save(version);
+        rememberAfterCommit(assetId, version.getVersion(), state);
+    }
+
+    public List<AASVersionMetadata> getVersions(String assetId) {
+        return versionRepository.findVersionInfoByAssetId(assetId).stream().map(AASVersionMetadata::new).toList();
+    }
+
+    /**
+     * Reconstructs a version of an AAS.
+     *
+     * @param assetId The assetId of the AAS.
+     * @param version The version number, starting at 1.
+     * @return The environment in the JSON form of aas4j, null if the version
+     *         does not exist or could not be read.
+     */
+    public String getVersion(String assetId, int version) {
+        LinkedHashMap<String, JsonNode> state = getState(assetId, version);
+        if (state == null)
+            return null;
+
+        try {
+            return objectMapper.writeValueAsString(EnvironmentDiff.unflatten(state));
+        } catch (IOException | IllegalStateException e) {
+            System.err.println("Error: Version " + version + " of AAS " + assetId + " could not be written.");
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    public void deleteByAssetId(String assetId) {
+        versionRepository.deleteByAssetId(assetId);
+        synchronized (latestStates) {
+            latestStates.remove(assetId);
+        }
+    }
+
+    /**
+     * @return The state of the latest version, from memory if it is the one
+     *         recorded last.
+     */
+    private LinkedHashMap<String, JsonNode> getLatestState(String assetId, int latestVersion) {
+        synchronized (latestStates) {
+            RecordedState recorded = latestStates.get(assetId);
+            if (recorded != null && recorded.version == latestVersion)
+                return recorded.state;
+        }
+        return getState(assetId, latestVersion);
+    }
+
+    /**
+     * Keeps the state once the version is committed. The state is only diffed
+     * against, it is never assembled by unflatten, which would change it.
+     */
+    private void rememberAfterCommit(String assetId, int version, LinkedHashMap<String, JsonNode> state) {
+        if (stateCacheSize <= 0)
+            return;
+
+        Runnable remember = () -> {
+            synchronized (latestStates) {
+                latestStates.put(assetId, new RecordedState(version, state));
+                Iterator<RecordedState> iterator = latestStates.values().iterator();
+                while (latestStates.size() > stateCacheSize && iterator.hasNext()) {
+                    iterator.next();
+                    iterator.remove();
+                }
+            }
+        };
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            remember.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                remember.run();
+            }
+        });
+    }
+
+    /**
+     * Reads the nearest snapshot at or before the version and applies the
+     * deltas following it.
+     *
+     * @return The flattened environment of the version, null if the version
+     *         does not exist or could not be read.
+     */
+    private LinkedHashMap<String, JsonNode> getState(String assetId, int version) {
+        Integer snapshotVersion = versionRepository.findSnapshotVersion(assetId, version);
+        if (snapshotVersion == null)
+            return null;
+
+        List<AASVersion> versions = versionRepository.findByAssetIdAndVersionBetweenOrderByVersionAsc(assetId,
+                snapshotVersion, version);
+        if (versions.size() != version - snapshotVersion + 1)
+            return null;
+
+        try {
+            LinkedHashMap<String, JsonNode> state = EnvironmentDiff.flatten((ObjectNode) decode(versions.get(0)));
+            for (AASVersion delta : versions.subList(1, versions.size()))
+                state = EnvironmentDiff.apply(state, decode(delta));
+            return state;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Error: Version " + version + " of AAS " + assetId + " could not be read.");
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Reads the tree of the environment from its tokens. Submodels of a
+     * lazily read environment are copied from their buffered tokens without
+     * being deserialized.
+     */
+    private ObjectNode readTree(EnvironmentService environmentService) throws IOException {
+        TokenBuffer tokens = new TokenBuffer(AASCodecs.JSON_MAPPER, false);
+        environmentService.write(AASCodecs.JSON_MAPPER, tokens);
+
+        ObjectNode environment;
+        try (JsonParser parser = tokens.asParser()) {
+            environment = (ObjectNode) objectMapper.readTree(parser);
+        }
+        // the serializer of aas4j and a lazily read environment differ in writing empty lists
+        Iterator<Map.Entry<String, JsonNode>> fields = environment.fields();
+        while (fields.hasNext()) {
+            JsonNode value = fields.next().getValue();
+            if (value.isArray() && value.isEmpty())
+                fields.remove();
+        }
+        return environment;
+    }
+
+    private byte[] encode(JsonNode node) throws IOException {
+        return CODEC.encode(objectMapper.writeValueAsBytes(node));
+    }
+
+    private JsonNode decode(AASVersion version) throws IOException {
+        return objectMapper.readTree(version.getStorageCodec().decode(version.getData()));
+    }
+
+    private static class RecordedState {
+
+        private final int version;
+        private final LinkedHashMap<String, JsonNode> state;
+
+        private RecordedState(int version, LinkedHashMap<String, JsonNode> state) {
+            this.version = version;
+            this.state = state;
+        }
+
+    }
+
+}
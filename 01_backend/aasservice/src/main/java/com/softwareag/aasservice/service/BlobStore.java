@@ -0,0 +1,60 @@
+/**
+*	Copyright 2025 Software GmbH (previously Software AG)
+*    
+*    Licensed under the Apache License, Version 2.0 (the "License");
+*    you may not use this file except in compliance with the License.
+*    You may obtain a copy of the License at
+*    
+*      http://www.apache.org/licenses/LICENSE-2.0
+*    
+*    Unless required by applicable law or agreed to in writing, software
+*   distributed under the License is distributed on an "AS IS" BASIS,
+*    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+*    See the License for the specific language governing permissions and
+*    limitations under the License.
+*/
+
+package com.softwareag.aasservice.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+import com.softwareag.aasservice.mysql.entity.AASUploadData;
+
+/**
+ * Stores the encoded bytes of AASUploadData. The row in "aas_upload_data"
+ * always holds the hash, codec and reference count, the name of the store is
+ * recorded in its column "storage".
+ */
+public interface BlobStore {
+
+    /**
+     * @return The name of the store, as recorded in "aas_upload_data.storage".
+     */
+    public abstract String getName();
+
+    /**
+     * Writes the bytes of the data, which must already have its hash.
+     */
+    public abstract void write(AASUploadData data, byte[] content) throws IOException;
+
+    public abstract InputStream open(AASUploadData data) throws IOException;
+
+    /**
+     * Returns the bytes of the data as a read-only buffer, memory-mapped if
+     * the store keeps them in a file, so that parts of them can be read
+     * without reading all of them, e.g. a file of an AASX package.
+     */
+    public abstract ByteBuffer map(AASUploadData data) throws IOException;
+
+    public abstract void transferTo(AASUploadData data, OutputStream out) throws IOException;
+
+    /**
+     * Deletes the bytes of the data with the given hash. Only called once the
+     * deletion or move of its row is committed.
+     */
+    public abstract void delete(String hash) throws IOException;
+
+}
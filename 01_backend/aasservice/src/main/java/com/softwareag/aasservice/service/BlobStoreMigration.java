@@ -0,0 +1,80 @@
+/**
+*	Copyright 2025 Software GmbH (previously Software AG)
+*    
+*    Licensed under the Apache License, Version 2.0 (the "License");
+*    you may not use this file except in compliance with the License.
+*    You may obtain a copy of the License at
+*    
+*      http://www.apache.org/licenses/LICENSE-2.0
+*    
+*    Unless required by applicable law or agreed to in writing, software
+*   distributed under the License is distributed on an "AS IS" BASIS,
+*    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+*    See the License for the specific language governing permissions and
+*    limitations under the License.
+*/
+
+package com.softwareag.aasservice.service;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import com.softwareag.aasservice.mysql.dao.AASUploadDataRepository;
+
+/**
+ * Moves all stored data to the configured BlobStore and stops the
+ * application afterwards. Started with the option "--aas.storage.migrate",
+ * e.g. "--aas.storage.blob-store=filesystem --aas.storage.migrate" moves the
+ * data from the database to the filesystem. Every data is moved in its own
+ * transaction, so the migration can be interrupted and started again.
+ */
+@Component
+public class BlobStoreMigration implements ApplicationRunner {
+
+    @Value("${aas.storage.migrate:false}")
+    private boolean migrate;
+
+    @Autowired
+    private AASUploadDataRepository dataRepository;
+
+    @Autowired
+    private AASUploadDataService dataService;
+
+    @Autowired
+    private ConfigurableApplicationContext context;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!migrate)
+            return;
+
+        String blobStoreName = dataService.getBlobStoreName();
+        List<Long> dataIds = dataRepository.findIdsNotStoredIn(blobStoreName);
+        System.out.println("Moving " + dataIds.size() + " AAS uploads to the " + blobStoreName + " blob store.");
+
+        int moved = 0;
+        int failed = 0;
+        for (Long dataId : dataIds) {
+            try {
+                if (dataService.moveToConfiguredBlobStore(dataId))
+                    moved++;
+            } catch (Exception e) {
+                System.err.println("Error: The data " + dataId + " could not be moved.");
+                e.printStackTrace();
+                failed++;
+            }
+        }
+
+        System.out.println("Moved " + moved + " AAS uploads, " + failed + " failed.");
+        int exitCode = failed > 0 ? 1 : 0;
+        System.exit(SpringApplication.exit(context, () -> exitCode));
+    }
+
+}
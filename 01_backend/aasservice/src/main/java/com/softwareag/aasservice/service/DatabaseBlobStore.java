@@ -0,0 +1,73 @@
+/**
+*	Copyright 2025 Software GmbH (previously Software AG)
+*    
+*    Licensed under the Apache License, Version 2.0 (the "License");
+*    you may not use this file except in compliance with the License.
+*    You may obtain a copy of the License at
+*    
+*      http://www.apache.org/licenses/LICENSE-2.0
+*    
+*    Unless required by applicable law or agreed to in writing, software
+*   distributed under the License is distributed on an "AS IS" BASIS,
+*    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+*    See the License for the specific language governing permissions and
+*    limitations under the License.
+*/
+
+package com.softwareag.aasservice.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+import org.springframework.stereotype.Component;
+
+import com.softwareag.aasservice.mysql.entity.AASUploadData;
+
+/**
+ * Stores the bytes in the column "aas_upload_data.upload".
+ */
+@Component
+public class DatabaseBlobStore implements BlobStore {
+
+    public static final String NAME = "database";
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public void write(AASUploadData data, byte[] content) {
+        data.setUpload(content);
+    }
+
+    @Override
+    public InputStream open(AASUploadData data) throws IOException {
+        if (data.getUpload() == null)
+            throw new IOException("The data " + data.getId() + " is not stored in the database.");
+        return new ByteArrayInputStream(data.getUpload());
+    }
+
+    @Override
+    public ByteBuffer map(AASUploadData data) throws IOException {
+        if (data.getUpload() == null)
+            throw new IOException("The data " + data.getId() + " is not stored in the database.");
+        return ByteBuffer.wrap(data.getUpload()).asReadOnlyBuffer();
+    }
+
+    @Override
+    public void transferTo(AASUploadData data, OutputStream out) throws IOException {
+        if (data.getUpload() == null)
+            throw new IOException("The data " + data.getId() + " is not stored in the database.");
+        out.write(data.getUpload());
+    }
+
+    @Override
+    public void delete(String hash) {
+        // the bytes are deleted with the row
+    }
+
+}
@@ -32,7 +32,7 @@ import jakarta.servlet.http.HttpServletResponse;
 public class DownloadService {
 
     public static void downloadEnvironment(EnvironmentService environmentService,
-            String directory, DataRepository dataRepository, DataType dataType, HttpServletResponse response) {
+            DataRepository dataRepository, DataType dataType, HttpServletResponse response) {
 
         String assetIDshort = environmentService.getAssetIDShort();
         String fileName = assetIDshort
@@ -41,29 +41,17 @@ public class DownloadService {
         response.setContentType("application/json");
         response.setHeader("Content-Disposition", "attachment; filename=" + fileName);
 
-        dataRepository.write(environmentService, fileName);
-
-        File outputFile = new File(directory + "/" + fileName);
-
-        try (FileInputStream in = new FileInputStream(outputFile);
-                OutputStream out = response.getOutputStream()) {
-
-            byte[] buffer = new byte[4096];
-            int length;
-            while ((length = in.read(buffer)) > 0) {
-                out.write(buffer, 0, length);
-            }
+        try (OutputStream out = response.getOutputStream()) {
+            dataRepository.write(environmentService, out);
             out.flush();
         } catch (IOException e) {
             e.printStackTrace();
         }
 
-        outputFile.delete();
-
     }
 
     public static void downloadEnvironments(List<EnvironmentService> environmentServices,
-            String directory, DataRepository dataRepository, DataType dataType, HttpServletResponse response) {
+            DataRepository dataRepository, DataType dataType, HttpServletResponse response) {
 
         response.setContentType("application/zip");
         response.setHeader("Content-Disposition", "attachment; filename=AAS_files.zip");
@@ -75,25 +63,10 @@ public class DownloadService {
                 String assetIDshort = environmentService.getAssetIDShort();
                 String fileName = assetIDshort
                         + (dataType == DataType.AASX ? ".aasx" : ".json");
-                dataRepository.write(environmentService, fileName);
 
                 try {
                     zipOut.putNextEntry(new ZipEntry("files/" + fileName));
-
-                    File outputFile = new File(directory + "/" + fileName);
-
-                    try (FileInputStream in = new FileInputStream(outputFile)) {
-                        byte[] buffer = new byte[4096];
-                        int length;
-                        while ((length = in.read(buffer)) > 0) {
-                            zipOut.write(buffer, 0, length);
-                        }
-                    } catch (IOException e) {
-                        e.printStackTrace();
-                    }
-
-                    outputFile.delete();
-
+                    dataRepository.write(environmentService, zipOut);
                     zipOut.closeEntry();
                 } catch (IOException e) {
                     e.printStackTrace();
@@ -0,0 +1,234 @@
+/**
+*	Copyright 2025 Software GmbH (previously Software AG)
+*    
+*    Licensed under the Apache License, Version 2.0 (the "License");
+*    you may not use this file except in compliance with the License.
+*    You may obtain a copy of the License at
+*    
+*      http://www.apache.org/licenses/LICENSE-2.0
+*    
+*    Unless required by applicable law or agreed to in writing, software
+*   distributed under the License is distributed on an "AS IS" BASIS,
+*    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+*    See the License for the specific language governing permissions and
+*    limitations under the License.
+*/
+
+package com.softwareag.aasservice.service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.softwareag.aasservice.data.repositories.AASCodecs;
+import com.softwareag.aasservice.data.repositories.SupplementaryFile;
+import com.softwareag.aasservice.mysql.entity.AASUpload;
+import com.softwareag.aasservice.utils.ZipDirectory;
+
+import lombok.Data;
+
+/**
+ * Caches the parsed environments of stored AASUploads, keyed by upload id and
+ * lastEditDate. The cache is bounded by the retained bytes of its entries and
+ * evicts the least recently used entries first.
+ *
+ * An entry keeps a LazyEnvironment.Snapshot of the environment, i.e. its
+ * tokens, which are never changed. Every lookup restores an environment of
+ * its own from them, whose submodels are deserialized when they are used, so
+ * a caller may modify the returned environment without changing the cached
+ * one. The supplementary files of an AASX package are not copied, the entry
+ * keeps referencing them in the stored package.
+ *
+ * The retained bytes of an entry are estimated from the buffered tokens of
+ * its environment.
+ */
+@Service
+public class EnvironmentCache {
+
+    // approximate retained size of an entry besides its environment
+    private static final long ENTRY_OVERHEAD = 128;
+
+    @Value("${aas.environment-cache.max-bytes:67108864}")
+    private long maxBytes;
+
+    private final LinkedHashMap<Long, CachedEnvironment> environments = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long weight;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * Restores the cached environment of the upload. The returned environment
+     * is a copy of its own, which the caller may modify.
+     *
+     * @param upload The stored AASUpload.
+     * @return The environment, null if it is not cached for the current
+     *         lastEditDate of the upload.
+     */
+    public EnvironmentService get(AASUpload upload) {
+        if (upload.getId() == null)
+            return null;
+
+        CachedEnvironment cached;
+        synchronized (this) {
+            cached = environments.get(upload.getId());
+        }
+
+        if (cached == null || cached.editTime != toEditTime(upload.getLastEditDate())) {
+            misses.incrementAndGet();
+            return null;
+        }
+
+        hits.incrementAndGet();
+        return cached.restore();
+    }
+
+    /**
+     * Caches a snapshot of the environment of the upload. Submodels which were
+     * not deserialized yet stay buffered, the environment may be modified
+     * afterwards.
+     *
+     * @param upload             The stored AASUpload.
+     * @param environmentService The environment stored in the upload.
+     */
+    public void put(AASUpload upload, EnvironmentService environmentService) {
+        if (maxBytes <= 0 || upload.getId() == null || environmentService == null)
+            return;
+
+        CachedEnvironment cached = CachedEnvironment.of(upload, environmentService);
+        if (cached == null || cached.weight > maxBytes)
+            return;
+
+        synchronized (this) {
+            CachedEnvironment replaced = environments.put(upload.getId(), cached);
+            if (replaced != null)
+                weight -= replaced.weight;
+            weight += cached.weight;
+
+            Iterator<CachedEnvironment> iterator = environments.values().iterator();
+            while (weight > maxBytes && iterator.hasNext()) {
+                weight -= iterator.next().weight;
+                iterator.remove();
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Removes the entry of the upload with the given id.
+     *
+     * @param uploadId The id of the AASUpload.
+     */
+    public synchronized void evict(Long uploadId) {
+        if (uploadId == null)
+            return;
+
+        CachedEnvironment removed = environments.remove(uploadId);
+        if (removed != null)
+            weight -= removed.weight;
+    }
+
+    /**
+     * Removes all entries belonging to the given assetId.
+     *
+     * @param assetId The assetId of the AAS.
+     */
+    public synchronized void evictByAssetId(String assetId) {
+        Iterator<Map.Entry<Long, CachedEnvironment>> iterator = environments.entrySet().iterator();
+        while (iterator.hasNext()) {
+            CachedEnvironment cached = iterator.next().getValue();
+            if (cached.assetId != null && cached.assetId.equals(assetId)) {
+                weight -= cached.weight;
+                iterator.remove();
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        environments.clear();
+        weight = 0;
+    }
+
+    public synchronized Statistics getStatistics() {
+        Statistics statistics = new Statistics();
+        statistics.setEntries(environments.size());
+        statistics.setWeightBytes(weight);
+        statistics.setMaxBytes(maxBytes);
+        statistics.setHits(hits.get());
+        statistics.setMisses(misses.get());
+        statistics.setEvictions(evictions.get());
+        return statistics;
+    }
+
+    private static long toEditTime(Date lastEditDate) {
+        // Hibernate hands out java.sql.Timestamp, therefore only the time is compared
+        return lastEditDate == null ? Long.MIN_VALUE : lastEditDate.getTime();
+    }
+
+    @Data
+    public static class Statistics {
+        private int entries;
+        private long weightBytes;
+        private long maxBytes;
+        private long hits;
+        private long misses;
+        private long evictions;
+    }
+
+    private static class CachedEnvironment {
+
+        private final String assetId;
+        private final long editTime;
+        private final LazyEnvironment.Snapshot snapshot;
+        private final List<SupplementaryFile> files;
+        private final long weight;
+
+        private CachedEnvironment(String assetId, long editTime, LazyEnvironment.Snapshot snapshot,
+                List<SupplementaryFile> files) {
+            this.assetId = assetId;
+            this.editTime = editTime;
+            this.snapshot = snapshot;
+            this.files = files;
+
+            // a package read from the heap is retained as a whole, a memory-mapped one is not
+            long packageBytes = files.stream().map(SupplementaryFile::getZipDirectory).distinct()
+                    .mapToLong(ZipDirectory::getHeapSize).sum();
+            this.weight = ENTRY_OVERHEAD + snapshot.getWeight() + packageBytes;
+        }
+
+        // the assetId of the upload is logged, as the environment may be broken
+        private static CachedEnvironment of(AASUpload upload, EnvironmentService environmentService) {
+            try {
+                return new CachedEnvironment(upload.getAssetId(), toEditTime(upload.getLastEditDate()),
+                        environmentService.snapshot(AASCodecs.JSON_MAPPER),
+                        copyFiles(environmentService.getSupplementaryFiles()));
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Error: The environment of AAS " + upload.getAssetId() + " could not be cached.");
+                e.printStackTrace();
+                return null;
+            }
+        }
+
+        private EnvironmentService restore() {
+            EnvironmentService environmentService = new EnvironmentService(snapshot.restore());
+            environmentService.setSupplementaryFiles(copyFiles(files));
+            return environmentService;
+        }
+
+        // the files are only read, the list is copied so that it can be modified
+        private static List<SupplementaryFile> copyFiles(List<SupplementaryFile> files) {
+            return files == null ? new ArrayList<>() : new ArrayList<>(files);
+        }
+    }
+
+}
@@ -16,15 +16,14 @@
 
 package com.softwareag.aasservice.service;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Queue;
-import java.util.stream.Collectors;
 
-import org.eclipse.digitaltwin.aas4j.v3.dataformat.aasx.InMemoryFile;
 import org.eclipse.digitaltwin.aas4j.v3.model.AssetAdministrationShell;
 import org.eclipse.digitaltwin.aas4j.v3.model.ConceptDescription;
 import org.eclipse.digitaltwin.aas4j.v3.model.DataElement;
@@ -43,6 +42,8 @@ import org.eclipse.digitaltwin.aas4j.v3.model.impl.DefaultKey;
 import org.eclipse.digitaltwin.aas4j.v3.model.impl.DefaultLangStringTextType;
 import org.eclipse.digitaltwin.aas4j.v3.model.impl.DefaultReference;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.softwareag.aasservice.data.AASDataTransferObject;
 import com.softwareag.aasservice.data.AASDataTransferObject.CarbonFootprint;
 import com.softwareag.aasservice.data.AASDataTransferObject.Nameplate;
@@ -51,17 +52,25 @@ import com.softwareag.aasservice.data.AASDataTransferObject.Submodels;
 import com.softwareag.aasservice.data.AASDataTransferObject.TechnicalData;
 import com.softwareag.aasservice.data.AASDataTransferObject.TransportCarbonFootprint;
 import com.softwareag.aasservice.data.models.DataElementType;
+import com.softwareag.aasservice.data.repositories.SupplementaryFile;
 import com.softwareag.modelling.SubmodelTemplate;
 
 public class EnvironmentService implements Environment {
 
         private Environment environment;
-        private List<InMemoryFile> fileList = new ArrayList<>();
+        // the supplementary files of an AASX package, which stay in the package
+        private List<SupplementaryFile> supplementaryFiles = new ArrayList<>();
         
         public HashMap<Class<? extends SubmodelTemplate>, SubmodelTemplate> submodelTemplates = new HashMap<>();
 
         public EnvironmentService(Environment environment) {
-                this.environment = environment;
+                // a wrapped EnvironmentService would hide a LazyEnvironment
+                if (environment instanceof EnvironmentService) {
+                        this.environment = ((EnvironmentService) environment).environment;
+                        this.supplementaryFiles = ((EnvironmentService) environment).supplementaryFiles;
+                } else {
+                        this.environment = environment;
+                }
         }
 
         @Override
@@ -94,16 +103,66 @@ public class EnvironmentService implements Environment {
                 environment.setSubmodels(submodels);
         }
 
+        /**
+         * Returns the environment with all its parts deserialized, e.g. to
+         * serialize it.
+         */
         public Environment getEnvironmentInstance() {
+                if (this.environment instanceof LazyEnvironment)
+                        this.environment = ((LazyEnvironment) this.environment).toEnvironment();
                 return this.environment;
         }
 
-        public void setFilelist(List<InMemoryFile> fileList) {
-                this.fileList = fileList;
+        /**
+         * Checks that every part of the environment can be deserialized. The
+         * parts of a lazily read environment are deserialized one by one
+         * without being kept, so the environment stays lazy.
+         *
+         * @throws RuntimeException If a part is invalid.
+         */
+        public void validate() {
+                if (this.environment instanceof LazyEnvironment)
+                        ((LazyEnvironment) this.environment).validate();
+        }
+
+        /**
+         * Writes the environment in the JSON model of aas4j. The parts which
+         * were not deserialized yet are written from their tokens.
+         *
+         * @param mapper    The mapper of the aas4j JSON model.
+         * @param generator The generator to write to, e.g. a TokenBuffer.
+         */
+        public void write(ObjectMapper mapper, JsonGenerator generator) throws IOException {
+                if (this.environment instanceof LazyEnvironment)
+                        ((LazyEnvironment) this.environment).write(generator);
+                else
+                        mapper.writeValue(generator, this.environment);
+        }
+
+        /**
+         * Copies the environment into tokens, without deserializing the parts
+         * which are not deserialized yet.
+         *
+         * @param mapper The mapper of the aas4j JSON model.
+         */
+        public LazyEnvironment.Snapshot snapshot(ObjectMapper mapper) throws IOException {
+                return LazyEnvironment.snapshot(mapper, this.environment);
+        }
+
+        /**
+         * @return The environment if its parts were not deserialized yet,
+         *         otherwise null.
+         */
+        public LazyEnvironment getLazyEnvironment() {
+                return this.environment instanceof LazyEnvironment ? (LazyEnvironment) this.environment : null;
+        }
+
+        public void setSupplementaryFiles(List<SupplementaryFile> supplementaryFiles) {
+                this.supplementaryFiles = supplementaryFiles;
         }
 
-        public List<InMemoryFile> getFileList() {
-                return this.fileList;
+        public List<SupplementaryFile> getSupplementaryFiles() {
+                return this.supplementaryFiles;
         }
 
         /**
@@ -113,7 +172,10 @@ public class EnvironmentService implements Environment {
          * 
          */
         public EnvironmentService clone() {
-                return new EnvironmentService(new AASModifier(environment).build());
+                EnvironmentService clone = new EnvironmentService(new AASModifier(environment).build());
+                // the files are only read, the clone can share them
+                clone.setSupplementaryFiles(new ArrayList<>(supplementaryFiles));
+                return clone;
         }
 
         public void duplicateSubmodel(String submodelIdShort, String newSubmodelId, String newSubmodelIdShort) {
@@ -364,6 +426,10 @@ public class EnvironmentService implements Environment {
         }
 
         public Submodel getSubmodelOfIdShort(String submodelIdShort) {
+                // only deserializes the requested submodel
+                if (this.environment instanceof LazyEnvironment)
+                        return ((LazyEnvironment) this.environment).getSubmodelOfIdShort(submodelIdShort);
+
                 return getSubmodels().stream()
                                 .filter(submodel -> isSubmodelTypeOf(submodel, submodelIdShort))
                                 .findFirst()
@@ -395,14 +461,11 @@ public class EnvironmentService implements Environment {
         }
 
         private boolean submodelExists(String submodelIdShort) {
-                return getSubmodels().stream()
-                                .filter(submodel -> submodel.getIdShort().equals(submodelIdShort))
-                                .collect(Collectors.toList())
-                                .size() > 0;
+                return getSubmodelOfIdShort(submodelIdShort) != null;
         }
 
         private boolean isSubmodelTypeOf(Submodel submodel, String submodelIdShort) throws IllegalArgumentException {
-                if (submodel.getIdShort().equals(submodelIdShort))
+                if (submodelIdShort.equals(submodel.getIdShort()))
                         return true;
                 return false;
         }
@@ -0,0 +1,118 @@
+/**
+*	Copyright 2025 Software GmbH (previously Software AG)
+*    
+*    Licensed under the Apache License, Version 2.0 (the "License");
+*    you may not use this file except in compliance with the License.
+*    You may obtain a copy of the License at
+*    
+*      http://www.apache.org/licenses/LICENSE-2.0
+*    
+*    Unless required by applicable law or agreed to in writing, software
+*   distributed under the License is distributed on an "AS IS" BASIS,
+*    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+*    See the License for the specific language governing permissions and
+*    limitations under the License.
+*/
+
+package com.softwareag.aasservice.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.softwareag.aasservice.mysql.entity.AASUploadData;
+import com.softwareag.aasservice.utils.ByteBufferInputStream;
+
+/**
+ * Stores the bytes in files on the local filesystem, named after the hash of
+ * the data. The files are sharded into two levels of directories by the first
+ * characters of the hash, e.g. "ab/cd/abcd...". Files are read through
+ * memory-mapped buffers, so large packages are not copied to the heap before
+ * they are parsed.
+ */
+@Component
+public class FileSystemBlobStore implements BlobStore {
+
+    public static final String NAME = "filesystem";
+
+    @Value("${aas.storage.filesystem.directory:blobs}")
+    private String directory;
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public void write(AASUploadData data, byte[] content) throws IOException {
+        Path path = getPath(data);
+        // the file name is the hash of the content, an existing file has the same content
+        if (Files.exists(path))
+            return;
+
+        Files.createDirectories(path.getParent());
+        Path temporaryPath = Files.createTempFile(path.getParent(), data.getHash(), ".tmp");
+        try {
+            Files.write(temporaryPath, content);
+            Files.move(temporaryPath, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temporaryPath);
+        }
+    }
+
+    @Override
+    public InputStream open(AASUploadData data) throws IOException {
+        return new ByteBufferInputStream(map(data));
+    }
+
+    @Override
+    public ByteBuffer map(AASUploadData data) throws IOException {
+        try (FileChannel channel = FileChannel.open(getPath(data), StandardOpenOption.READ)) {
+            // a ByteBuffer addresses at most 2 GB, larger files are streamed
+            // by transferTo only
+            if (channel.size() > Integer.MAX_VALUE)
+                throw new IOException("The stored file " + data.getHash() + " is larger than 2 GB.");
+            // the mapping stays valid after the channel is closed
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    @Override
+    public void transferTo(AASUploadData data, OutputStream out) throws IOException {
+        try (FileChannel channel = FileChannel.open(getPath(data), StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(out);
+            long position = 0;
+            long size = channel.size();
+            while (position < size)
+                position += channel.transferTo(position, size - position, target);
+        }
+    }
+
+    @Override
+    public void delete(String hash) throws IOException {
+        Files.deleteIfExists(getPath(hash));
+    }
+
+    private Path getPath(AASUploadData data) {
+        if (data.getHash() == null)
+            throw new IllegalArgumentException("The data " + data.getId() + " has no content hash.");
+        return getPath(data.getHash());
+    }
+
+    private Path getPath(String hash) {
+        return Paths.get(directory, hash.substring(0, 2), hash.substring(2, 4), hash);
+    }
+
+}
@@ -0,0 +1,465 @@
+/**
+*	Copyright 2025 Software GmbH (previously Software AG)
+*    
+*    Licensed under the Apache License, Version 2.0 (the "License");
+*    you may not use this file except in compliance with the License.
+*    You may obtain a copy of the License at
+*    
+*      http://www.apache.org/licenses/LICENSE-2.0
+*    
+*    Unless required by applicable law or agreed to in writing, software
+*   distributed under the License is distributed on an "AS IS" BASIS,
+*    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+*    See the License for the specific language governing permissions and
+*    limitations under the License.
+*/
+
+package com.softwareag.aasservice.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.digitaltwin.aas4j.v3.model.AssetAdministrationShell;
+import org.eclipse.digitaltwin.aas4j.v3.model.ConceptDescription;
+import org.eclipse.digitaltwin.aas4j.v3.model.Environment;
+import org.eclipse.digitaltwin.aas4j.v3.model.Submodel;
+import org.eclipse.digitaltwin.aas4j.v3.model.impl.DefaultEnvironment;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+/**
+ * An environment read from the JSON of aas4j, or its Smile form, which
+ * deserializes its submodels and concept descriptions only when they are
+ * used. While reading, the tokens of each submodel are buffered and indexed by
+ * its idShort, only the shells are deserialized right away.
+ *
+ * A submodel is deserialized when it is returned by getSubmodelOfIdShort or
+ * read from the list of getSubmodels, its tokens are dropped then. As the
+ * content of an unused submodel is not checked, an upload is checked by
+ * validate, which deserializes the buffered parts one by one without keeping
+ * them. Storing, caching and recording the version of an environment write
+ * the buffered parts from their tokens, so an environment is deserialized as
+ * a whole only if it is used as a whole, e.g. written as AASX.
+ *
+ * A {@link Snapshot} keeps the environment as tokens only, e.g. in the
+ * EnvironmentCache, and restores an environment of its own for every reader.
+ */
+public class LazyEnvironment implements Environment {
+
+    private static final TypeReference<List<AssetAdministrationShell>> SHELLS = new TypeReference<>() {
+    };
+    private static final TypeReference<List<ConceptDescription>> CONCEPT_DESCRIPTIONS = new TypeReference<>() {
+    };
+
+    // approximate retained size of a buffered token besides its string
+    private static final long TOKEN_OVERHEAD = 16;
+
+    private final ObjectMapper mapper;
+
+    private List<AssetAdministrationShell> assetAdministrationShells = new ArrayList<>();
+    private List<Submodel> submodels = new LazySubmodelList();
+    private List<ConceptDescription> conceptDescriptions;
+    private TokenBuffer conceptDescriptionTokens;
+
+    private LazyEnvironment(ObjectMapper mapper) {
+        this.mapper = mapper;
+    }
+
+    /**
+     * Reads the environment and indexes its submodels.
+     *
+     * @param mapper The mapper of the aas4j JSON model for the format of the
+     *               input.
+     * @param in     The environment, closed after reading.
+     */
+    public static LazyEnvironment read(ObjectMapper mapper, InputStream in) throws IOException {
+        LazyEnvironment environment = new LazyEnvironment(mapper);
+        LazySubmodelList submodels = (LazySubmodelList) environment.submodels;
+
+        try (JsonParser parser = mapper.createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT)
+                throw new JsonParseException(parser, "The environment is not an object.");
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                if (parser.nextToken() == JsonToken.VALUE_NULL)
+                    continue;
+
+                switch (field) {
+                    case "assetAdministrationShells":
+                        environment.assetAdministrationShells = mapper.readValue(parser, SHELLS);
+                        break;
+                    case "submodels":
+                        if (parser.currentToken() != JsonToken.START_ARRAY)
+                            throw new JsonParseException(parser, "The submodels are not an array.");
+                        while (parser.nextToken() != JsonToken.END_ARRAY)
+                            submodels.entries.add(new SubmodelEntry(buffer(parser)));
+                        break;
+                    case "conceptDescriptions":
+                        environment.conceptDescriptionTokens = buffer(parser);
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
+        }
+        return environment;
+    }
+
+    @Override
+    public List<AssetAdministrationShell> getAssetAdministrationShells() {
+        return assetAdministrationShells;
+    }
+
+    @Override
+    public void setAssetAdministrationShells(List<AssetAdministrationShell> assetAdministrationShells) {
+        this.assetAdministrationShells = assetAdministrationShells;
+    }
+
+    @Override
+    public List<Submodel> getSubmodels() {
+        return submodels;
+    }
+
+    @Override
+    public void setSubmodels(List<Submodel> submodels) {
+        this.submodels = submodels;
+    }
+
+    @Override
+    public List<ConceptDescription> getConceptDescriptions() {
+        if (conceptDescriptions != null)
+            return conceptDescriptions;
+        if (conceptDescriptionTokens == null)
+            return conceptDescriptions = new ArrayList<>();
+
+        try (JsonParser parser = conceptDescriptionTokens.asParser()) {
+            conceptDescriptions = mapper.readValue(parser, CONCEPT_DESCRIPTIONS);
+            conceptDescriptionTokens = null;
+            return conceptDescriptions;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void setConceptDescriptions(List<ConceptDescription> conceptDescriptions) {
+        this.conceptDescriptions = conceptDescriptions;
+        this.conceptDescriptionTokens = null;
+    }
+
+    /**
+     * Deserializes only the first submodel with the idShort.
+     *
+     * @return The submodel, null if there is none with the idShort.
+     */
+    public Submodel getSubmodelOfIdShort(String idShort) {
+        if (!(submodels instanceof LazySubmodelList)) {
+            return submodels.stream().filter(submodel -> idShort.equals(submodel.getIdShort())).findFirst()
+                    .orElse(null);
+        }
+
+        List<SubmodelEntry> entries = ((LazySubmodelList) submodels).entries;
+        for (SubmodelEntry entry : entries) {
+            if (idShort.equals(entry.getIdShort()))
+                return entry.getSubmodel(this);
+        }
+        return null;
+    }
+
+    /**
+     * Deserializes the parts which were not deserialized yet one by one,
+     * without keeping them, so that an invalid part is found while the
+     * environment stays buffered.
+     *
+     * @throws UncheckedIOException If a part is invalid.
+     */
+    public void validate() {
+        if (submodels instanceof LazySubmodelList) {
+            for (SubmodelEntry entry : ((LazySubmodelList) submodels).entries) {
+                if (entry.submodel == null)
+                    deserializeSubmodel(entry.tokens);
+            }
+        }
+
+        if (conceptDescriptionTokens != null) {
+            try (JsonParser parser = conceptDescriptionTokens.asParser()) {
+                mapper.readValue(parser, CONCEPT_DESCRIPTIONS);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Copies the environment into tokens. Parts of a LazyEnvironment which
+     * were not deserialized yet are not copied, as their tokens are never
+     * changed, all other parts are serialized.
+     *
+     * @param mapper      The mapper of the aas4j JSON model.
+     * @param environment The environment, which may be changed afterwards
+     *                    without changing the snapshot.
+     */
+    public static Snapshot snapshot(ObjectMapper mapper, Environment environment) throws IOException {
+        List<SubmodelEntry> submodelEntries = new ArrayList<>();
+        TokenBuffer conceptDescriptions = null;
+
+        LazyEnvironment lazy = environment instanceof LazyEnvironment ? (LazyEnvironment) environment : null;
+        if (lazy != null && lazy.submodels instanceof LazySubmodelList) {
+            for (SubmodelEntry entry : ((LazySubmodelList) lazy.submodels).entries) {
+                submodelEntries.add(entry.submodel == null ? new SubmodelEntry(entry.tokens, entry.idShort)
+                        : new SubmodelEntry(buffer(mapper, entry.submodel), entry.submodel.getIdShort()));
+            }
+        } else if (environment.getSubmodels() != null) {
+            for (Submodel submodel : environment.getSubmodels())
+                submodelEntries.add(new SubmodelEntry(buffer(mapper, submodel), submodel.getIdShort()));
+        }
+
+        if (lazy != null && lazy.conceptDescriptionTokens != null)
+            conceptDescriptions = lazy.conceptDescriptionTokens;
+        else if (environment.getConceptDescriptions() != null && !environment.getConceptDescriptions().isEmpty())
+            conceptDescriptions = buffer(mapper, environment.getConceptDescriptions());
+
+        TokenBuffer shells = environment.getAssetAdministrationShells() == null ? null
+                : buffer(mapper, environment.getAssetAdministrationShells());
+        return new Snapshot(mapper, shells, submodelEntries, conceptDescriptions);
+    }
+
+    /**
+     * @return The environment with all its parts deserialized.
+     */
+    public Environment toEnvironment() {
+        DefaultEnvironment environment = new DefaultEnvironment();
+        environment.setAssetAdministrationShells(assetAdministrationShells);
+        environment.setSubmodels(new ArrayList<>(submodels));
+        environment.setConceptDescriptions(getConceptDescriptions());
+        return environment;
+    }
+
+    /**
+     * Writes the environment in the JSON model of aas4j. The parts which were
+     * not deserialized are written from their buffered tokens.
+     */
+    public void write(JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+
+        if (assetAdministrationShells != null && !assetAdministrationShells.isEmpty()) {
+            generator.writeFieldName("assetAdministrationShells");
+            mapper.writeValue(generator, assetAdministrationShells);
+        }
+
+        if (submodels != null && !submodels.isEmpty()) {
+            generator.writeFieldName("submodels");
+            if (submodels instanceof LazySubmodelList) {
+                generator.writeStartArray();
+                for (SubmodelEntry entry : ((LazySubmodelList) submodels).entries) {
+                    if (entry.submodel != null)
+                        mapper.writeValue(generator, entry.submodel);
+                    else
+                        entry.tokens.serialize(generator);
+                }
+                generator.writeEndArray();
+            } else {
+                mapper.writeValue(generator, submodels);
+            }
+        }
+
+        if (conceptDescriptionTokens != null) {
+            generator.writeFieldName("conceptDescriptions");
+            conceptDescriptionTokens.serialize(generator);
+        } else if (conceptDescriptions != null && !conceptDescriptions.isEmpty()) {
+            generator.writeFieldName("conceptDescriptions");
+            mapper.writeValue(generator, conceptDescriptions);
+        }
+
+        generator.writeEndObject();
+    }
+
+    private static TokenBuffer buffer(JsonParser parser) throws IOException {
+        TokenBuffer tokens = new TokenBuffer(parser);
+        tokens.copyCurrentStructure(parser);
+        return tokens;
+    }
+
+    private static TokenBuffer buffer(ObjectMapper mapper, Object value) throws IOException {
+        TokenBuffer tokens = new TokenBuffer(mapper, false);
+        mapper.writeValue(tokens, value);
+        return tokens;
+    }
+
+    // field names are shared by the parser, only string values are counted
+    private static long estimateWeight(TokenBuffer tokens) throws IOException {
+        if (tokens == null)
+            return 0;
+
+        long weight = 0;
+        try (JsonParser parser = tokens.asParser()) {
+            for (JsonToken token = parser.nextToken(); token != null; token = parser.nextToken()) {
+                weight += TOKEN_OVERHEAD;
+                if (token == JsonToken.VALUE_STRING)
+                    weight += 40 + 2L * parser.getTextLength();
+            }
+        }
+        return weight;
+    }
+
+    private Submodel deserializeSubmodel(TokenBuffer tokens) {
+        try (JsonParser parser = tokens.asParser()) {
+            return mapper.readValue(parser, Submodel.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static class SubmodelEntry {
+
+        private TokenBuffer tokens;
+        private Submodel submodel;
+        private String idShort;
+
+        private SubmodelEntry(TokenBuffer tokens) throws IOException {
+            this(tokens, readIdShort(tokens));
+        }
+
+        private SubmodelEntry(TokenBuffer tokens, String idShort) {
+            this.tokens = tokens;
+            this.idShort = idShort;
+        }
+
+        private SubmodelEntry(Submodel submodel) {
+            this.submodel = submodel;
+        }
+
+        private String getIdShort() {
+            return submodel != null ? submodel.getIdShort() : idShort;
+        }
+
+        private Submodel getSubmodel(LazyEnvironment environment) {
+            if (submodel == null) {
+                submodel = environment.deserializeSubmodel(tokens);
+                tokens = null;
+            }
+            return submodel;
+        }
+
+        private static String readIdShort(TokenBuffer tokens) throws IOException {
+            try (JsonParser parser = tokens.asParser()) {
+                if (parser.nextToken() != JsonToken.START_OBJECT)
+                    return null;
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.currentName();
+                    parser.nextToken();
+                    if ("idShort".equals(field))
+                        return parser.getValueAsString();
+                    parser.skipChildren();
+                }
+                return null;
+            }
+        }
+
+    }
+
+    /**
+     * An environment held as tokens only, which is never changed and can
+     * therefore be shared by several threads. Each restored environment is a
+     * LazyEnvironment of its own, which deserializes its parts from the
+     * shared tokens when they are used.
+     */
+    public static class Snapshot {
+
+        private final ObjectMapper mapper;
+        private final TokenBuffer shells;
+        private final List<SubmodelEntry> submodels;
+        private final TokenBuffer conceptDescriptions;
+        private final long weight;
+
+        private Snapshot(ObjectMapper mapper, TokenBuffer shells, List<SubmodelEntry> submodels,
+                TokenBuffer conceptDescriptions) throws IOException {
+            this.mapper = mapper;
+            this.shells = shells;
+            this.submodels = submodels;
+            this.conceptDescriptions = conceptDescriptions;
+
+            long weight = estimateWeight(shells) + estimateWeight(conceptDescriptions);
+            for (SubmodelEntry entry : submodels)
+                weight += estimateWeight(entry.tokens);
+            this.weight = weight;
+        }
+
+        public LazyEnvironment restore() {
+            LazyEnvironment environment = new LazyEnvironment(mapper);
+            if (shells != null) {
+                try (JsonParser parser = shells.asParser()) {
+                    environment.assetAdministrationShells = mapper.readValue(parser, SHELLS);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            List<SubmodelEntry> entries = ((LazySubmodelList) environment.submodels).entries;
+            for (SubmodelEntry entry : submodels)
+                entries.add(new SubmodelEntry(entry.tokens, entry.idShort));
+            environment.conceptDescriptionTokens = conceptDescriptions;
+            return environment;
+        }
+
+        /**
+         * @return The estimated number of bytes retained by the tokens.
+         */
+        public long getWeight() {
+            return weight;
+        }
+
+    }
+
+    /**
+     * The submodels in their order, each deserialized when it is read.
+     */
+    private class LazySubmodelList extends AbstractList<Submodel> {
+
+        private final List<SubmodelEntry> entries = new ArrayList<>();
+
+        @Override
+        public Submodel get(int index) {
+            return entries.get(index).getSubmodel(LazyEnvironment.this);
+        }
+
+        @Override
+        public int size() {
+            return entries.size();
+        }
+
+        @Override
+        public Submodel set(int index, Submodel submodel) {
+            Submodel previous = get(index);
+            entries.set(index, new SubmodelEntry(submodel));
+            return previous;
+        }
+
+        @Override
+        public void add(int index, Submodel submodel) {
+            entries.add(index, new SubmodelEntry(submodel));
+            modCount++;
+        }
+
+        @Override
+        public Submodel remove(int index) {
+            Submodel previous = get(index);
+            entries.remove(index);
+            modCount++;
+            return previous;
+        }
+
+    }
+
+}
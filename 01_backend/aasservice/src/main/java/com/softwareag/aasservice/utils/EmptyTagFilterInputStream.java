@@ -0,0 +1,287 @@
+/**
+*	Copyright 2025 Software GmbH (previously Software AG)
+*    
+*    Licensed under the Apache License, Version 2.0 (the "License");
+*    you may not use this file except in compliance with the License.
+*    You may obtain a copy of the License at
+*    
+*      http://www.apache.org/licenses/LICENSE-2.0
+*    
+*    Unless required by applicable law or agreed to in writing, software
+*   distributed under the License is distributed on an "AS IS" BASIS,
+*    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+*    See the License for the specific language governing permissions and
+*    limitations under the License.
+*/
+
+package com.softwareag.aasservice.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Removes empty self-closing tags from an XML document while it is read. A tag
+ * is removed if there is neither a '&gt;' nor a '/' between its '&lt;' and its
+ * closing "/&gt;", e.g. "&lt;value/&gt;" or "&lt;value xml:lang="en"/&gt;".
+ * The filtered document is therefore the same as the one of the regular
+ * expression replacement previously done on the whole document.
+ *
+ * Only the current tag is buffered. Text is passed through without being
+ * decoded, as the bytes of multi-byte UTF-8 characters never equal '&lt;', '/'
+ * or '&gt;'. The same holds for single-byte encodings like ISO-8859-1, so the
+ * encoding of the XML declaration is accepted if it is UTF-8 or such an
+ * encoding, and has to be used to decode the filtered document, see
+ * {@link #getCharset()}. Other encodings, in particular UTF-16, are rejected
+ * with an {@link UnsupportedEncodingException} when the stream is first read.
+ */
+public class EmptyTagFilterInputStream extends InputStream {
+
+    private static final byte[] UTF8_BOM = { (byte) 0xef, (byte) 0xbb, (byte) 0xbf };
+    private static final byte[] DECLARATION_START = "<?xml".getBytes(StandardCharsets.US_ASCII);
+    private static final Pattern ENCODING = Pattern.compile("encoding\\s*=\\s*[\"']([^\"']*)[\"']");
+
+    private final InputStream in;
+
+    // the encoding of the XML declaration, null until the start of the document
+    // has been read
+    private Charset charset;
+
+    private final byte[] input = new byte[8192];
+    private int inputPosition;
+    private int inputLength;
+    private boolean endOfInput;
+
+    // the tag read so far, from its '<' on, which is passed through if it turns
+    // out not to be empty
+    private byte[] tag = new byte[256];
+    private int tagLength;
+    private boolean tagClosing;
+    private int pendingPosition;
+    private int pendingLength;
+
+    public EmptyTagFilterInputStream(InputStream in) {
+        this.in = in;
+    }
+
+    /**
+     * Reads the start of the document if this has not been done yet.
+     *
+     * @return The encoding of the XML declaration, UTF-8 if there is none.
+     * @throws UnsupportedEncodingException If the document is not encoded in
+     *                                      UTF-8 or a single-byte encoding
+     *                                      compatible with ASCII.
+     */
+    public Charset getCharset() throws IOException {
+        if (charset == null)
+            readProlog();
+        return charset;
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] single = new byte[1];
+        return read(single, 0, 1) == -1 ? -1 : single[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+        Objects.checkFromIndexSize(offset, length, bytes.length);
+        if (length == 0)
+            return 0;
+
+        int written = 0;
+        while (written < length) {
+            if (pendingPosition < pendingLength) {
+                int count = Math.min(length - written, pendingLength - pendingPosition);
+                System.arraycopy(tag, pendingPosition, bytes, offset + written, count);
+                pendingPosition += count;
+                written += count;
+                continue;
+            }
+
+            if (inputPosition == inputLength) {
+                // return what is there instead of blocking for more
+                if (written > 0 || !fill())
+                    break;
+            }
+
+            if (tagLength == 0) {
+                int end = Math.min(inputLength, inputPosition + length - written);
+                int start = inputPosition;
+                while (inputPosition < end && input[inputPosition] != '<')
+                    inputPosition++;
+                System.arraycopy(input, start, bytes, offset + written, inputPosition - start);
+                written += inputPosition - start;
+
+                if (inputPosition < end)
+                    appendToTag(input[inputPosition++]);
+            } else {
+                readTag(input[inputPosition]);
+            }
+        }
+        return written == 0 && endOfInput ? -1 : written;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        byte[] skipped = new byte[(int) Math.min(Math.max(n, 0), input.length)];
+        int count = read(skipped, 0, skipped.length);
+        return Math.max(count, 0);
+    }
+
+    @Override
+    public int available() {
+        return pendingLength - pendingPosition;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    /**
+     * Continues the current tag with the next byte of the input. A tag which is
+     * not empty is passed through, the byte ending it is then read again
+     * outside of a tag.
+     */
+    private void readTag(byte next) {
+        if (tagClosing) {
+            if (next == '>') {
+                inputPosition++;
+                tagLength = 0;
+                tagClosing = false;
+            } else {
+                passTag();
+            }
+        } else if (next == '/' && tagLength > 1) {
+            inputPosition++;
+            appendToTag(next);
+            tagClosing = true;
+        } else if (next == '/' || next == '>') {
+            passTag();
+        } else {
+            inputPosition++;
+            appendToTag(next);
+        }
+    }
+
+    private void appendToTag(byte next) {
+        if (tagLength == tag.length)
+            tag = Arrays.copyOf(tag, tag.length * 2);
+        tag[tagLength++] = next;
+    }
+
+    private void passTag() {
+        pendingPosition = 0;
+        pendingLength = tagLength;
+        tagLength = 0;
+        tagClosing = false;
+    }
+
+    /**
+     * @return false at the end of the input, after the unfinished tag has been
+     *         passed through.
+     */
+    private boolean fill() throws IOException {
+        if (charset == null) {
+            readProlog();
+            if (inputLength > 0)
+                return true;
+        }
+
+        int count = endOfInput ? -1 : in.read(input, 0, input.length);
+        while (count == 0)
+            count = in.read(input, 0, input.length);
+
+        if (count == -1) {
+            endOfInput = true;
+            passTag();
+            return pendingLength > 0;
+        }
+        inputPosition = 0;
+        inputLength = count;
+        return true;
+    }
+
+    /**
+     * Reads the start of the document into the input buffer, up to the end of
+     * the XML declaration if there is one, and checks its encoding.
+     */
+    private void readProlog() throws IOException {
+        String declaration = null;
+        int start = startsWith(UTF8_BOM, 0) ? UTF8_BOM.length : 0;
+        while (!endOfInput && inputLength < input.length) {
+            int end = indexOfDeclarationEnd(start);
+            if (end >= 0) {
+                declaration = new String(input, start, end - start, StandardCharsets.ISO_8859_1);
+                break;
+            }
+            if (inputLength >= start + DECLARATION_START.length && !startsWith(DECLARATION_START, start))
+                break;
+
+            int count = in.read(input, inputLength, input.length - inputLength);
+            if (count == -1)
+                endOfInput = true;
+            else
+                inputLength += count;
+            start = startsWith(UTF8_BOM, 0) ? UTF8_BOM.length : 0;
+        }
+
+        // UTF-16 and UTF-32 documents start with a byte order mark or a zero
+        // byte next to the '<'
+        if (startsWith(new byte[] { (byte) 0xfe, (byte) 0xff }, 0)
+                || startsWith(new byte[] { (byte) 0xff, (byte) 0xfe }, 0)
+                || (inputLength >= 2 && (input[0] == 0 || input[1] == 0)))
+            throw new UnsupportedEncodingException("UTF-16 and UTF-32 encoded XML documents are not supported.");
+
+        Matcher matcher = declaration == null ? null : ENCODING.matcher(declaration);
+        if (matcher == null || !matcher.find()) {
+            charset = StandardCharsets.UTF_8;
+            return;
+        }
+        charset = supportedCharset(matcher.group(1));
+        if (charset == null)
+            throw new UnsupportedEncodingException("The XML encoding " + matcher.group(1) + " is not supported.");
+    }
+
+    /**
+     * @return The charset, if it is UTF-8 or a single-byte encoding in which
+     *         '&lt;', '/' and '&gt;' are encoded as in ASCII, otherwise null.
+     */
+    private static Charset supportedCharset(String encoding) {
+        Charset charset;
+        try {
+            charset = Charset.forName(encoding);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (charset.equals(StandardCharsets.UTF_8))
+            return charset;
+        if (!charset.canEncode() || charset.newEncoder().maxBytesPerChar() != 1)
+            return null;
+        return Arrays.equals("</>".getBytes(charset), "</>".getBytes(StandardCharsets.US_ASCII)) ? charset : null;
+    }
+
+    private int indexOfDeclarationEnd(int start) {
+        if (!startsWith(DECLARATION_START, start))
+            return -1;
+        for (int i = start + DECLARATION_START.length; i + 1 < inputLength; i++)
+            if (input[i] == '?' && input[i + 1] == '>')
+                return i + 2;
+        return -1;
+    }
+
+    private boolean startsWith(byte[] prefix, int start) {
+        if (inputLength - start < prefix.length)
+            return false;
+        return Arrays.equals(input, start, start + prefix.length, prefix, 0, prefix.length);
+    }
+
+}
@@ -0,0 +1,203 @@
+/**
+*	Copyright 2025 Software GmbH (previously Software AG)
+*    
+*    Licensed under the Apache License, Version 2.0 (the "License");
+*    you may not use this file except in compliance with the License.
+*    You may obtain a copy of the License at
+*    
+*      http://www.apache.org/licenses/LICENSE-2.0
+*    
+*    Unless required by applicable law or agreed to in writing, software
+*   distributed under the License is distributed on an "AS IS" BASIS,
+*    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+*    See the License for the specific language governing permissions and
+*    limitations under the License.
+*/
+
+package com.softwareag.aasservice.utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Structural diff of AAS environments in their JSON form.
+ *
+ * An environment is flattened into parts: the environment without its
+ * submodels, every submodel without its elements and every submodel element.
+ * The elements of a SubmodelElementCollection or SubmodelElementList are
+ * parts of their own. Each part is keyed by its path of submodel id and
+ * idShorts, e.g. "/https:~1~1example.com~1sm/ContactInformation/Phone", the
+ * segments escaped as in a JSON pointer.
+ *
+ * A delta holds the parts which were added or changed ("put") and, if parts
+ * were added, removed or reordered, the keys of all parts in their new order
+ * ("order").
+ */
+public class EnvironmentDiff {
+
+    private static final String SUBMODELS = "submodels";
+    private static final String SUBMODEL_ELEMENTS = "submodelElements";
+    private static final String VALUE = "value";
+    private static final Set<String> CONTAINER_TYPES = Set.of("SubmodelElementCollection", "SubmodelElementList");
+
+    private static final String PUT = "put";
+    private static final String ORDER = "order";
+
+    /**
+     * Flattens the environment into its parts. The environment is taken apart,
+     * so it must not be used afterwards.
+     *
+     * @param environment The environment in the JSON form of aas4j.
+     * @return The parts of the environment in document order, parents before
+     *         their children.
+     */
+    public static LinkedHashMap<String, JsonNode> flatten(ObjectNode environment) {
+        LinkedHashMap<String, JsonNode> parts = new LinkedHashMap<>();
+        JsonNode submodels = detachChildren(environment, SUBMODELS);
+        parts.put("", environment);
+        if (submodels != null)
+            flattenChildren(parts, "", submodels);
+        return parts;
+    }
+
+    /**
+     * Assembles the environment from its parts. The parts are reused, so they
+     * must not be used afterwards.
+     *
+     * @param parts The parts as returned by flatten or apply.
+     * @return The environment in the JSON form of aas4j.
+     */
+    public static ObjectNode unflatten(LinkedHashMap<String, JsonNode> parts) {
+        Map<String, ObjectNode> nodes = new HashMap<>();
+        for (Map.Entry<String, JsonNode> part : parts.entrySet()) {
+            String key = part.getKey();
+            ObjectNode node = (ObjectNode) part.getValue();
+            nodes.put(key, node);
+            if (key.isEmpty())
+                continue;
+
+            String parentKey = key.substring(0, key.lastIndexOf('/'));
+            ObjectNode parent = nodes.get(parentKey);
+            String field = parentKey.isEmpty() ? SUBMODELS
+                    : parentKey.lastIndexOf('/') == 0 ? SUBMODEL_ELEMENTS : VALUE;
+            if (parent == null || !parent.path(field).isArray())
+                throw new IllegalStateException("The part " + key + " has no parent.");
+            ((ArrayNode) parent.get(field)).add(node);
+        }
+
+        ObjectNode environment = nodes.get("");
+        if (environment == null)
+            throw new IllegalStateException("The environment part is missing.");
+        return environment;
+    }
+
+    /**
+     * Computes the delta turning one flattened environment into another.
+     *
+     * @param from The parts of the older environment.
+     * @param to   The parts of the newer environment.
+     * @return The delta, see isEmpty for an unchanged environment.
+     */
+    public static ObjectNode diff(LinkedHashMap<String, JsonNode> from, LinkedHashMap<String, JsonNode> to) {
+        ObjectNode delta = JsonNodeFactory.instance.objectNode();
+
+        ObjectNode put = delta.putObject(PUT);
+        to.forEach((key, node) -> {
+            if (!node.equals(from.get(key)))
+                put.set(key, node);
+        });
+
+        if (!new ArrayList<>(from.keySet()).equals(new ArrayList<>(to.keySet()))) {
+            ArrayNode order = delta.putArray(ORDER);
+            to.keySet().forEach(order::add);
+        }
+        return delta;
+    }
+
+    public static boolean isEmpty(JsonNode delta) {
+        return delta.path(PUT).isEmpty() && !delta.has(ORDER);
+    }
+
+    /**
+     * Applies a delta computed by diff to the parts it was computed from.
+     *
+     * @param parts The parts of the older environment.
+     * @param delta The delta.
+     * @return The parts of the newer environment.
+     */
+    public static LinkedHashMap<String, JsonNode> apply(LinkedHashMap<String, JsonNode> parts, JsonNode delta) {
+        JsonNode put = delta.path(PUT);
+        LinkedHashMap<String, JsonNode> result = new LinkedHashMap<>();
+
+        if (delta.has(ORDER)) {
+            delta.get(ORDER).forEach(keyNode -> {
+                String key = keyNode.asText();
+                JsonNode node = put.has(key) ? put.get(key) : parts.get(key);
+                if (node == null)
+                    throw new IllegalStateException("The delta does not match the environment at " + key + ".");
+                result.put(key, node);
+            });
+        } else {
+            parts.forEach((key, node) -> result.put(key, put.has(key) ? put.get(key) : node));
+        }
+        return result;
+    }
+
+    private static void flattenChildren(LinkedHashMap<String, JsonNode> parts, String parentKey, JsonNode children) {
+        Set<String> segments = new HashSet<>();
+        for (int i = 0; i < children.size(); i++) {
+            ObjectNode child = (ObjectNode) children.get(i);
+
+            // submodels are identified by their id, elements by their idShort
+            JsonNode name = parentKey.isEmpty() ? child.get("id") : child.get("idShort");
+            String segment = name != null && name.isTextual() ? escape(name.asText()) : null;
+            if (segment == null || !segments.add(segment)) {
+                segment = "#" + i;
+                segments.add(segment);
+            }
+            String key = parentKey + "/" + segment;
+
+            JsonNode grandChildren = null;
+            if (parentKey.isEmpty())
+                grandChildren = detachChildren(child, SUBMODEL_ELEMENTS);
+            else if (CONTAINER_TYPES.contains(child.path("modelType").asText()))
+                grandChildren = detachChildren(child, VALUE);
+
+            parts.put(key, child);
+            if (grandChildren != null)
+                flattenChildren(parts, key, grandChildren);
+        }
+    }
+
+    /**
+     * Replaces the array of child objects in the field with an empty array, so
+     * that the node keeps the field when it is assembled again.
+     *
+     * @return The detached children, null if the field holds no such array.
+     */
+    private static JsonNode detachChildren(ObjectNode node, String field) {
+        JsonNode children = node.get(field);
+        if (children == null || !children.isArray())
+            return null;
+        for (JsonNode child : children) {
+            if (!child.isObject())
+                return null;
+        }
+        node.putArray(field);
+        return children;
+    }
+
+    private static String escape(String segment) {
+        return segment.replace("~", "~0").replace("/", "~1");
+    }
+
+}
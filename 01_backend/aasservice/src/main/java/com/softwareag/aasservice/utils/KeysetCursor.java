@@ -0,0 +1,58 @@
+/**
+*	Copyright 2025 Software GmbH (previously Software AG)
+*    
+*    Licensed under the Apache License, Version 2.0 (the "License");
+*    you may not use this file except in compliance with the License.
+*    You may obtain a copy of the License at
+*    
+*      http://www.apache.org/licenses/LICENSE-2.0
+*    
+*    Unless required by applicable law or agreed to in writing, software
+*   distributed under the License is distributed on an "AS IS" BASIS,
+*    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+*    See the License for the specific language governing permissions and
+*    limitations under the License.
+*/
+
+package com.softwareag.aasservice.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Encodes the position of a keyset paginated list as an opaque cursor. The
+ * lists are ordered by the id of the aas table, therefore the cursor contains
+ * the id of the last returned row.
+ */
+public class KeysetCursor {
+
+    private static final String PREFIX = "aas:";
+
+    public static String encode(Long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIX + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor created by {@link #encode(Long)}.
+     *
+     * @param cursor The cursor, may be null for the first page.
+     * @return The id after which the next page starts.
+     * @throws IllegalArgumentException If the cursor is invalid.
+     */
+    public static Long decode(String cursor) {
+        if (cursor == null || cursor.isEmpty())
+            return 0L;
+
+        String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        if (!value.startsWith(PREFIX))
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+
+        try {
+            return Long.parseLong(value.substring(PREFIX.length()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+
+}
@@ -23,8 +23,12 @@ import java.security.NoSuchAlgorithmException;
 public class SHA256 {
 
     public static String hashString(String input) throws NoSuchAlgorithmException {
+        return hashBytes(input.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String hashBytes(byte[] input) throws NoSuchAlgorithmException {
         MessageDigest digest = MessageDigest.getInstance("SHA-256");
-        byte[] encodedhash = digest.digest(input.getBytes(StandardCharsets.UTF_8));
+        byte[] encodedhash = digest.digest(input);
 
         // Convert byte array to a hexadecimal string
         StringBuilder hexString = new StringBuilder(2 * encodedhash.length);
@@ -0,0 +1,60 @@
+/**
+*	Copyright 2025 Software GmbH (previously Software AG)
+*    
+*    Licensed under the Apache License, Version 2.0 (the "License");
+*    you may not use this file except in compliance with the License.
+*    You may obtain a copy of the License at
+*    
+*      http://www.apache.org/licenses/LICENSE-2.0
+*    
+*    Unless required by applicable law or agreed to in writing, software
+*   distributed under the License is distributed on an "AS IS" BASIS,
+*    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+*    See the License for the specific language governing permissions and
+*    limitations under the License.
+*/
+
+package com.softwareag.aasservice.utils;
+
+import com.softwareag.aasservice.mysql.entity.AASUpload;
+
+/**
+ * The entity tag of a single stored AAS, made of the id and the version of its
+ * AASUpload. It changes with every save, and also if the AAS was deleted and
+ * uploaded again.
+ */
+public class UploadETag {
+
+    public static String of(Long uploadId, Long version) {
+        return "\"" + uploadId + "." + version + "\"";
+    }
+
+    public static String of(AASUpload upload) {
+        return of(upload.getId(), upload.getVersion());
+    }
+
+    /**
+     * Checks an If-Match header against the stored upload.
+     *
+     * @param ifMatch The value of the If-Match header, a list of entity tags
+     *                or "*".
+     * @param upload  The stored AASUpload, null if there is none.
+     * @return True if one of the entity tags matches the upload, or the header
+     *         is "*" and the upload exists.
+     */
+    public static boolean matches(String ifMatch, AASUpload upload) {
+        if (upload == null)
+            return false;
+
+        String current = of(upload);
+        for (String eTag : ifMatch.split(",")) {
+            eTag = eTag.trim();
+            if (eTag.startsWith("W/"))
+                eTag = eTag.substring(2);
+            if (eTag.equals("*") || eTag.equals(current))
+                return true;
+        }
+        return false;
+    }
+
+}
@@ -0,0 +1,292 @@
+/**
+*	Copyright 2025 Software GmbH (previously Software AG)
+*    
+*    Licensed under the Apache License, Version 2.0 (the "License");
+*    you may not use this file except in compliance with the License.
+*    You may obtain a copy of the License at
+*    
+*      http://www.apache.org/licenses/LICENSE-2.0
+*    
+*    Unless required by applicable law or agreed to in writing, software
+*   distributed under the License is distributed on an "AS IS" BASIS,
+*    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+*    See the License for the specific language governing permissions and
+*    limitations under the License.
+*/
+
+package com.softwareag.aasservice.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipException;
+
+/**
+ * The central directory of a zip file in a ByteBuffer, e.g. a memory-mapped
+ * AASX package. Only the directory is read, an entry is read from its offset
+ * in the buffer when it is opened, so entries are never copied to the heap as
+ * a whole. The buffer must not change while the directory is used. As it is
+ * addressed by a ByteBuffer, the zip file is at most 2 GB.
+ */
+public class ZipDirectory {
+
+    private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+    private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+    private static final int END_SIGNATURE = 0x06054b50;
+    private static final int ZIP64_END_SIGNATURE = 0x06064b50;
+    private static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+    private static final int ZIP64_EXTRA_FIELD = 0x0001;
+
+    private static final int END_SIZE = 22;
+    private static final int ZIP64_LOCATOR_SIZE = 20;
+    private static final int MAX_COMMENT_SIZE = 0xffff;
+
+    public static final int STORED = 0;
+    public static final int DEFLATED = 8;
+
+    private final ByteBuffer zip;
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+
+    private ZipDirectory(ByteBuffer zip) {
+        this.zip = zip.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Reads the central directory of the zip file from the position to the
+     * limit of the buffer.
+     *
+     * @throws ZipException If the buffer holds no valid zip file.
+     */
+    public static ZipDirectory read(ByteBuffer zip) throws ZipException {
+        ZipDirectory directory = new ZipDirectory(zip.slice());
+        directory.readEntries();
+        return directory;
+    }
+
+    /**
+     * @return The entry of the name, null if there is none.
+     */
+    public Entry getEntry(String name) {
+        return entries.get(name);
+    }
+
+    public Collection<Entry> getEntries() {
+        return Collections.unmodifiableCollection(entries.values());
+    }
+
+    /**
+     * @return The number of bytes of the zip file held on the heap, 0 if it
+     *         is memory-mapped.
+     */
+    public long getHeapSize() {
+        return zip.isDirect() ? 0 : zip.capacity();
+    }
+
+    /**
+     * Opens the entry, which is inflated while it is read.
+     *
+     * @throws ZipException If the entry is outside of the zip file or
+     *                      compressed with another method than deflate.
+     */
+    public InputStream open(Entry entry) throws ZipException {
+        long headerOffset = entry.localHeaderOffset;
+        checkRange(headerOffset, 30, "local header of " + entry.name);
+        int header = (int) headerOffset;
+        if (zip.getInt(header) != LOCAL_HEADER_SIGNATURE)
+            throw new ZipException("The local header of " + entry.name + " is invalid.");
+
+        // the name and extra field may differ from the ones in the central directory
+        long dataOffset = headerOffset + 30 + getUnsignedShort(header + 26) + getUnsignedShort(header + 28);
+        checkRange(dataOffset, entry.compressedSize, "data of " + entry.name);
+        InputStream data = new ByteBufferInputStream(zip.slice((int) dataOffset, (int) entry.compressedSize));
+
+        switch (entry.method) {
+            case STORED:
+                return data;
+            case DEFLATED:
+                return new EntryInputStream(data);
+            default:
+                throw new ZipException("The entry " + entry.name + " is compressed with the unsupported method "
+                        + entry.method + ".");
+        }
+    }
+
+    private void readEntries() throws ZipException {
+        int end = findEnd();
+        long count = getUnsignedShort(end + 10);
+        long directorySize = getUnsignedInt(end + 12);
+        long directoryOffset = getUnsignedInt(end + 16);
+
+        if (count == 0xffff || directorySize == 0xffffffffL || directoryOffset == 0xffffffffL) {
+            int locator = end - ZIP64_LOCATOR_SIZE;
+            if (locator >= 0 && zip.getInt(locator) == ZIP64_LOCATOR_SIGNATURE) {
+                long zip64End = zip.getLong(locator + 8);
+                checkRange(zip64End, 56, "zip64 end of central directory");
+                if (zip.getInt((int) zip64End) != ZIP64_END_SIGNATURE)
+                    throw new ZipException("The zip64 end of central directory is invalid.");
+                count = zip.getLong((int) zip64End + 32);
+                directorySize = zip.getLong((int) zip64End + 40);
+                directoryOffset = zip.getLong((int) zip64End + 48);
+            }
+        }
+
+        checkRange(directoryOffset, directorySize, "central directory");
+        int position = (int) directoryOffset;
+        for (long i = 0; i < count; i++) {
+            checkRange(position, 46, "central directory");
+            if (zip.getInt(position) != CENTRAL_HEADER_SIGNATURE)
+                throw new ZipException("The central directory is invalid.");
+
+            int nameLength = getUnsignedShort(position + 28);
+            int extraLength = getUnsignedShort(position + 30);
+            int commentLength = getUnsignedShort(position + 32);
+            checkRange(position + 46, nameLength + extraLength, "central directory");
+
+            byte[] name = new byte[nameLength];
+            zip.get(position + 46, name);
+
+            Entry entry = new Entry(new String(name, StandardCharsets.UTF_8), getUnsignedShort(position + 10),
+                    getUnsignedInt(position + 20), getUnsignedInt(position + 24), getUnsignedInt(position + 42));
+            readZip64Fields(entry, position + 46 + nameLength, extraLength);
+            if (!entry.name.endsWith("/"))
+                entries.putIfAbsent(entry.name, entry);
+
+            position += 46 + nameLength + extraLength + commentLength;
+        }
+    }
+
+    /**
+     * Sizes and offsets which do not fit into 32 bits are stored in the zip64
+     * extra field, in this order and only if the field itself is 0xffffffff.
+     */
+    private void readZip64Fields(Entry entry, int extra, int extraLength) {
+        int end = extra + extraLength;
+        while (extra + 4 <= end) {
+            int id = getUnsignedShort(extra);
+            int size = getUnsignedShort(extra + 2);
+            int field = extra + 4;
+            extra = field + size;
+            if (id != ZIP64_EXTRA_FIELD || extra > end)
+                continue;
+
+            if (entry.size == 0xffffffffL && field + 8 <= extra) {
+                entry.size = zip.getLong(field);
+                field += 8;
+            }
+            if (entry.compressedSize == 0xffffffffL && field + 8 <= extra) {
+                entry.compressedSize = zip.getLong(field);
+                field += 8;
+            }
+            if (entry.localHeaderOffset == 0xffffffffL && field + 8 <= extra)
+                entry.localHeaderOffset = zip.getLong(field);
+        }
+    }
+
+    // the end of central directory record is followed by a comment of up to 64 KB
+    private int findEnd() throws ZipException {
+        int last = zip.limit() - END_SIZE;
+        int first = Math.max(0, last - MAX_COMMENT_SIZE);
+        for (int position = last; position >= first; position--) {
+            if (zip.getInt(position) == END_SIGNATURE
+                    && position + END_SIZE + getUnsignedShort(position + 20) <= zip.limit())
+                return position;
+        }
+        throw new ZipException("The end of the central directory was not found.");
+    }
+
+    private void checkRange(long offset, long length, String part) throws ZipException {
+        if (offset < 0 || length < 0 || offset + length > zip.limit())
+            throw new ZipException("The " + part + " is outside of the zip file.");
+    }
+
+    private int getUnsignedShort(int position) {
+        return Short.toUnsignedInt(zip.getShort(position));
+    }
+
+    private long getUnsignedInt(int position) {
+        return Integer.toUnsignedLong(zip.getInt(position));
+    }
+
+    /**
+     * An entry of the central directory.
+     */
+    public static class Entry {
+
+        private final String name;
+        private final int method;
+        private long compressedSize;
+        private long size;
+        private long localHeaderOffset;
+
+        private Entry(String name, int method, long compressedSize, long size, long localHeaderOffset) {
+            this.name = name;
+            this.method = method;
+            this.compressedSize = compressedSize;
+            this.size = size;
+            this.localHeaderOffset = localHeaderOffset;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getMethod() {
+            return method;
+        }
+
+        public long getCompressedSize() {
+            return compressedSize;
+        }
+
+        /**
+         * @return The size of the entry once it is inflated.
+         */
+        public long getSize() {
+            return size;
+        }
+
+    }
+
+    /**
+     * Inflates raw deflate data and ends its inflater when it is closed.
+     */
+    private static class EntryInputStream extends InflaterInputStream {
+
+        private boolean endOfInput;
+
+        private EntryInputStream(InputStream in) {
+            super(in, new Inflater(true), 8192);
+        }
+
+        // as the ZipFile of the JDK, an inflater without header is given a
+        // dummy byte after the end of the data
+        @Override
+        protected void fill() throws IOException {
+            if (endOfInput)
+                throw new ZipException("Unexpected end of the deflated data.");
+            len = in.read(buf, 0, buf.length);
+            if (len == -1) {
+                buf[0] = 0;
+                len = 1;
+                endOfInput = true;
+            }
+            inf.setInput(buf, 0, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            super.close();
+            inf.end();
+        }
+
+    }
+
+}
@@ -0,0 +1,93 @@
+/**
+*	Copyright 2025 Software GmbH (previously Software AG)
+*    
+*    Licensed under the Apache License, Version 2.0 (the "License");
+*    you may not use this file except in compliance with the License.
+*    You may obtain a copy of the License at
+*    
+*      http://www.apache.org/licenses/LICENSE-2.0
+*    
+*    Unless required by applicable law or agreed to in writing, software
+*   distributed under the License is distributed on an "AS IS" BASIS,
+*    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+*    See the License for the specific language governing permissions and
+*    limitations under the License.
+*/
+
+package com.softwareag.aasservice.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import com.softwareag.aasservice.data.BulkUploadFile;
+
+/**
+ * Iterates over the files of a zip stream while it is read, so that only the
+ * current entry is held in memory. Directories are skipped, the name of a file
+ * is the name of its entry without the directories.
+ *
+ * At most maxFileSize bytes of an entry are decompressed into memory. A larger
+ * entry is skipped without being held and its file has no data, so that a
+ * highly compressed entry cannot exhaust the heap.
+ */
+public class ZipFileIterator implements Iterator<BulkUploadFile> {
+
+    private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
+    private final ZipInputStream zipInputStream;
+
+    private final long maxFileSize;
+
+    private ZipEntry nextEntry;
+
+    /**
+     * @param in          The zip stream.
+     * @param maxFileSize The maximum uncompressed size of an entry in bytes,
+     *                    negative for the largest possible array.
+     */
+    public ZipFileIterator(InputStream in, long maxFileSize) {
+        this.zipInputStream = new ZipInputStream(in);
+        this.maxFileSize = maxFileSize < 0 ? MAX_ARRAY_SIZE : Math.min(maxFileSize, MAX_ARRAY_SIZE);
+    }
+
+    @Override
+    public boolean hasNext() {
+        try {
+            while (nextEntry == null) {
+                ZipEntry entry = zipInputStream.getNextEntry();
+                if (entry == null)
+                    return false;
+                if (!entry.isDirectory())
+                    nextEntry = entry;
+            }
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public BulkUploadFile next() {
+        if (!hasNext())
+            throw new NoSuchElementException();
+
+        ZipEntry entry = nextEntry;
+        nextEntry = null;
+        String name = entry.getName().substring(entry.getName().lastIndexOf('/') + 1);
+        // the rest of a skipped entry is read without being held by the next call of getNextEntry
+        if (entry.getSize() > maxFileSize)
+            return new BulkUploadFile(name, null);
+        try {
+            byte[] data = zipInputStream.readNBytes((int) Math.min(maxFileSize + 1, MAX_ARRAY_SIZE));
+            return new BulkUploadFile(name, data.length > maxFileSize ? null : data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+}
@@ -0,0 +1,264 @@
+/**
+*	Copyright 2025 Software GmbH (previously Software AG)
+*    
+*    Licensed under the Apache License, Version 2.0 (the "License");
+*    you may not use this file except in compliance with the License.
+*    You may obtain a copy of the License at
+*    
+*      http://www.apache.org/licenses/LICENSE-2.0
+*    
+*    Unless required by applicable law or agreed to in writing, software
+*   distributed under the License is distributed on an "AS IS" BASIS,
+*    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+*    See the License for the specific language governing permissions and
+*    limitations under the License.
+*/
+
+package com.softwareag.aasservice.data.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.eclipse.digitaltwin.aas4j.v3.dataformat.aasx.AASXDeserializer;
+import org.eclipse.digitaltwin.aas4j.v3.dataformat.aasx.AASXSerializer;
+import org.eclipse.digitaltwin.aas4j.v3.dataformat.aasx.InMemoryFile;
+import org.eclipse.digitaltwin.aas4j.v3.model.AssetKind;
+import org.eclipse.digitaltwin.aas4j.v3.model.Environment;
+import org.eclipse.digitaltwin.aas4j.v3.model.impl.DefaultAssetAdministrationShell;
+import org.eclipse.digitaltwin.aas4j.v3.model.impl.DefaultAssetInformation;
+import org.eclipse.digitaltwin.aas4j.v3.model.impl.DefaultEnvironment;
+import org.eclipse.digitaltwin.aas4j.v3.model.impl.DefaultFile;
+import org.eclipse.digitaltwin.aas4j.v3.model.impl.DefaultSubmodel;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.softwareag.aasservice.service.EnvironmentService;
+
+/**
+ * Round trips of AASX packages with supplementary files between AASXPackage
+ * and the POI based AASXSerializer and AASXDeserializer of aas4j, which wrote
+ * and read the packages before.
+ */
+class AASXPackageTest {
+
+    private static final String MANUAL = "/aasx/files/manual.pdf";
+    private static final String IMAGE = "/aasx/files/image.png";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsPackageWrittenByAas4j() throws Exception {
+        Environment environment = environment(MANUAL, IMAGE);
+        Map<String, byte[]> files = files(MANUAL, IMAGE);
+
+        AASXPackage aasxPackage = AASXPackage.read(ByteBuffer.wrap(writeWithAas4j(environment, files)));
+
+        assertEquals(environment, readXMLPart(aasxPackage));
+        assertFiles(files, aasxPackage.getSupplementaryFiles());
+        assertEquals("application/pdf", aasxPackage.getSupplementaryFile(MANUAL).getContentType());
+        assertEquals("image/png", aasxPackage.getSupplementaryFile("aasx/files/image.png").getContentType());
+        assertFalse(aasxPackage.getSupplementaryFile(MANUAL).isThumbnail());
+    }
+
+    @Test
+    void writesPackageReadByAas4j() throws Exception {
+        Environment environment = environment(MANUAL, IMAGE);
+        Map<String, byte[]> files = files(MANUAL, IMAGE);
+        AASXPackage source = AASXPackage.read(ByteBuffer.wrap(writeWithAas4j(environment, files)));
+
+        byte[] aasx = write(environment, source.getSupplementaryFiles());
+
+        AASXDeserializer deserializer = new AASXDeserializer(new ByteArrayInputStream(aasx));
+        assertEquals(environment, deserializer.read());
+        Map<String, byte[]> relatedFiles = new LinkedHashMap<>();
+        for (InMemoryFile file : deserializer.getRelatedFiles())
+            relatedFiles.put(file.getPath(), file.getFileContent());
+        assertEquals(files.keySet(), relatedFiles.keySet());
+        for (Map.Entry<String, byte[]> file : files.entrySet())
+            assertArrayEquals(file.getValue(), relatedFiles.get(file.getKey()), file.getKey());
+    }
+
+    @Test
+    void roundTripsThroughRepository() throws Exception {
+        Environment environment = environment(MANUAL, IMAGE);
+        Map<String, byte[]> files = files(MANUAL, IMAGE);
+        AASXDataRepository repository = new AASXDataRepository();
+
+        EnvironmentService read = repository.read(writeWithAas4j(environment, files));
+        EnvironmentService reread = repository.read(repository.write(read));
+
+        assertEquals(environment, reread.getEnvironmentInstance());
+        assertFiles(files, reread.getSupplementaryFiles());
+    }
+
+    @Test
+    void keepsPercentEncodedPartsAndThumbnail() throws Exception {
+        String dataSheet = "/aasx/files/data sheet.pdf";
+        Environment environment = environment(dataSheet);
+        Map<String, byte[]> files = files(dataSheet, "/thumbnail.png");
+
+        AASXPackage aasxPackage = AASXPackage.read(ByteBuffer.wrap(writeWithEncodedTargets(environment, files)));
+        AASXPackage rewritten = AASXPackage
+                .read(ByteBuffer.wrap(write(environment, aasxPackage.getSupplementaryFiles())));
+
+        for (AASXPackage read : List.of(aasxPackage, rewritten)) {
+            assertEquals(environment, readXMLPart(read));
+            assertFiles(files, read.getSupplementaryFiles());
+            assertEquals("application/pdf",
+                    read.getSupplementaryFile("/aasx/files/data%20sheet.pdf").getContentType());
+            assertNotNull(read.getSupplementaryFile(dataSheet));
+            assertFalse(read.getSupplementaryFile(dataSheet).isThumbnail());
+            assertTrue(read.getSupplementaryFile("/thumbnail.png").isThumbnail());
+            assertEquals("image/png", read.getSupplementaryFile("/thumbnail.png").getContentType());
+        }
+    }
+
+    @Test
+    void rejectsPackagesLargerThan2GB() throws IOException {
+        File file = directory.resolve("large.aasx").toFile();
+        try (RandomAccessFile sparse = new RandomAccessFile(file, "rw")) {
+            sparse.setLength(3L << 30);
+        }
+
+        assertNull(new AASXDataRepository().read(file));
+    }
+
+    private static Environment environment(String... paths) {
+        DefaultSubmodel.Builder submodel = new DefaultSubmodel.Builder()
+                .id("https://example.com/sm/documentation")
+                .idShort("Documentation");
+        for (int i = 0; i < paths.length; i++)
+            submodel.submodelElements(new DefaultFile.Builder()
+                    .idShort("File" + i)
+                    .contentType(paths[i].endsWith(".pdf") ? "application/pdf" : "image/png")
+                    .value(paths[i])
+                    .build());
+
+        return new DefaultEnvironment.Builder()
+                .assetAdministrationShells(new DefaultAssetAdministrationShell.Builder()
+                        .id("https://example.com/aas")
+                        .idShort("Pump")
+                        .assetInformation(new DefaultAssetInformation.Builder()
+                                .assetKind(AssetKind.INSTANCE)
+                                .globalAssetId("https://example.com/asset")
+                                .build())
+                        .build())
+                .submodels(submodel.build())
+                .build();
+    }
+
+    private static Map<String, byte[]> files(String... paths) {
+        Map<String, byte[]> files = new LinkedHashMap<>();
+        Random random = new Random(42);
+        for (String path : paths) {
+            byte[] content = new byte[100000];
+            random.nextBytes(content);
+            files.put(path, content);
+        }
+        return files;
+    }
+
+    private static byte[] writeWithAas4j(Environment environment, Map<String, byte[]> files) throws Exception {
+        List<InMemoryFile> inMemoryFiles = files.entrySet().stream()
+                .map(file -> new InMemoryFile(file.getValue(), file.getKey()))
+                .toList();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new AASXSerializer().write(environment, inMemoryFiles, out);
+        return out.toByteArray();
+    }
+
+    private static byte[] write(Environment environment, List<SupplementaryFile> files) throws Exception {
+        byte[] xml = AASCodecs.XML_SERIALIZER.write(environment).getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        AASXPackage.write(out, xmlPart -> xmlPart.write(xml), files);
+        return out.toByteArray();
+    }
+
+    /**
+     * Writes a package as other OPC writers do: with relative,
+     * percent-encoded relationship targets, content types by extension and
+     * override, and a thumbnail related to the package.
+     */
+    private static byte[] writeWithEncodedTargets(Environment environment, Map<String, byte[]> files)
+            throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(out)) {
+            putEntry(zip, "[Content_Types].xml", "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+                    + "<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">"
+                    + "<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>"
+                    + "<Default Extension=\"xml\" ContentType=\"text/xml\"/>"
+                    + "<Default Extension=\"PNG\" ContentType=\"image/png\"/>"
+                    + "<Override PartName=\"/aasx/files/data%20sheet.pdf\" ContentType=\"application/pdf\"/>"
+                    + "</Types>");
+            putEntry(zip, "_rels/.rels", relationships(
+                    "http://admin-shell.io/aasx/relationships/aasx-origin", "/aasx/aasx-origin",
+                    "http://schemas.openxmlformats.org/package/2006/relationships/metadata/thumbnail", "thumbnail.png"));
+            putEntry(zip, "aasx/aasx-origin", "Intentionally empty.");
+            putEntry(zip, "aasx/_rels/aasx-origin.rels", relationships(
+                    "http://admin-shell.io/aasx/relationships/aas-spec", "xml/content.xml"));
+            putEntry(zip, "aasx/xml/content.xml", AASCodecs.XML_SERIALIZER.write(environment));
+            putEntry(zip, "aasx/xml/_rels/content.xml.rels", relationships(
+                    "http://admin-shell.io/aasx/relationships/aas-suppl", "../files/data%20sheet.pdf"));
+            for (Map.Entry<String, byte[]> file : files.entrySet()) {
+                zip.putNextEntry(new ZipEntry(file.getKey().substring(1)));
+                zip.write(file.getValue());
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private static String relationships(String... typesAndTargets) {
+        StringBuilder xml = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+                + "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">");
+        for (int i = 0; i < typesAndTargets.length; i += 2)
+            xml.append("<Relationship Type=\"").append(typesAndTargets[i]).append("\" Target=\"")
+                    .append(typesAndTargets[i + 1]).append("\" Id=\"R").append(i / 2).append("\"/>");
+        return xml.append("</Relationships>").toString();
+    }
+
+    private static void putEntry(ZipOutputStream zip, String name, String content) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        zip.write(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Environment readXMLPart(AASXPackage aasxPackage) throws Exception {
+        try (InputStream xml = aasxPackage.openXMLPart()) {
+            return AASCodecs.XML_DESERIALIZER.read(xml);
+        }
+    }
+
+    private static void assertFiles(Map<String, byte[]> expected, List<SupplementaryFile> files)
+            throws IOException {
+        Map<String, byte[]> actual = new LinkedHashMap<>();
+        for (SupplementaryFile file : files) {
+            try (InputStream in = file.open()) {
+                actual.put(file.getPath(), in.readAllBytes());
+            }
+        }
+        assertEquals(expected.keySet(), actual.keySet());
+        for (Map.Entry<String, byte[]> file : expected.entrySet())
+            assertArrayEquals(file.getValue(), actual.get(file.getKey()), file.getKey());
+    }
+
+}
@@ -0,0 +1,175 @@
+/**
+*	Copyright 2025 Software GmbH (previously Software AG)
+*    
+*    Licensed under the Apache License, Version 2.0 (the "License");
+*    you may not use this file except in compliance with the License.
+*    You may obtain a copy of the License at
+*    
+*      http://www.apache.org/licenses/LICENSE-2.0
+*    
+*    Unless required by applicable law or agreed to in writing, software
+*   distributed under the License is distributed on an "AS IS" BASIS,
+*    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+*    See the License for the specific language governing permissions and
+*    limitations under the License.
+*/
+
+package com.softwareag.aasservice.service;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.softwareag.aasservice.data.StorageCodec;
+import com.softwareag.aasservice.mysql.dao.AASUploadDataRepository;
+import com.softwareag.aasservice.mysql.dao.AASUploadDataRepository.StoredData;
+import com.softwareag.aasservice.mysql.entity.AASUploadData;
+import com.softwareag.aasservice.utils.SHA256;
+
+/**
+ * A release of data deletes its file after its transaction is committed. A
+ * store of the same data in the meantime reuses the existing file, which the
+ * deferred delete must not remove then. A store whose transaction is rolled
+ * back deletes the file it wrote unless a row still references it.
+ */
+class AASUploadDataServiceTest {
+
+    private static final byte[] CONTENT = "{\"assetAdministrationShells\":[]}".getBytes(StandardCharsets.UTF_8);
+
+    @TempDir
+    Path directory;
+
+    private AASUploadDataRepository dataRepository;
+    private AASUploadDataService dataService;
+    private String hash;
+    private Path file;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        FileSystemBlobStore fileSystemBlobStore = new FileSystemBlobStore();
+        ReflectionTestUtils.setField(fileSystemBlobStore, "directory", directory.toString());
+
+        dataRepository = mock(AASUploadDataRepository.class);
+        dataService = new AASUploadDataService();
+        ReflectionTestUtils.setField(dataService, "dataRepository", dataRepository);
+        ReflectionTestUtils.setField(dataService, "blobStores", List.of(new DatabaseBlobStore(), fileSystemBlobStore));
+        ReflectionTestUtils.setField(dataService, "blobStoreName", FileSystemBlobStore.NAME);
+        dataService.init();
+
+        hash = SHA256.hashBytes(CONTENT);
+        file = directory.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+
+        // the file of the data with id 1, which is released by the tests
+        AASUploadData releasedData = new AASUploadData();
+        releasedData.setHash(hash);
+        fileSystemBlobStore.write(releasedData, CONTENT);
+
+        StoredData storedData = mock(StoredData.class);
+        when(storedData.getHash()).thenReturn(hash);
+        when(storedData.getStorage()).thenReturn(FileSystemBlobStore.NAME);
+        when(dataRepository.decrementRefCount(1L)).thenReturn(1);
+        when(dataRepository.findUnreferencedById(1L)).thenReturn(Optional.of(storedData));
+        when(dataRepository.deleteIfUnreferenced(1L)).thenReturn(1);
+
+        // the data is stored again as the new row with id 2
+        when(dataRepository.incrementRefCountByHash(hash)).thenReturn(0);
+        when(dataRepository.insertOrIncrementRefCount(anyString(), any(), any(), any())).thenReturn(1);
+        when(dataRepository.findLastInsertId()).thenReturn(2L);
+        when(dataRepository.getReferenceById(anyLong())).thenReturn(new AASUploadData());
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive())
+            TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    void releaseDeletesUnreferencedFile() {
+        dataService.release(1L);
+
+        assertFalse(Files.exists(file));
+    }
+
+    @Test
+    void deferredDeleteKeepsFileOfUncommittedStore() throws Exception {
+        TransactionSynchronizationManager.initSynchronization();
+        dataService.store(null, CONTENT, StorageCodec.IDENTITY);
+
+        // the release was committed while the store is not
+        Thread release = new Thread(() -> dataService.release(1L));
+        release.start();
+        release.join();
+        assertTrue(Files.exists(file));
+
+        completeTransaction();
+        assertTrue(Files.exists(file));
+    }
+
+    @Test
+    void deferredDeleteKeepsFileOfCommittedStore() {
+        TransactionSynchronizationManager.initSynchronization();
+        dataService.store(null, CONTENT, StorageCodec.IDENTITY);
+        completeTransaction();
+        when(dataRepository.existsByHashAndStorage(hash, FileSystemBlobStore.NAME)).thenReturn(true);
+
+        dataService.release(1L);
+
+        assertTrue(Files.exists(file));
+    }
+
+    @Test
+    void rolledBackStoreDeletesItsFile() {
+        TransactionSynchronizationManager.initSynchronization();
+        dataService.store(null, CONTENT, StorageCodec.IDENTITY);
+
+        rollBackTransaction();
+
+        assertFalse(Files.exists(file));
+    }
+
+    @Test
+    void rolledBackStoreKeepsReferencedFile() {
+        when(dataRepository.existsByHashAndStorage(hash, FileSystemBlobStore.NAME)).thenReturn(true);
+        TransactionSynchronizationManager.initSynchronization();
+        dataService.store(null, CONTENT, StorageCodec.IDENTITY);
+
+        rollBackTransaction();
+
+        assertTrue(Files.exists(file));
+    }
+
+    private static void completeTransaction() {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        synchronizations.forEach(synchronization -> synchronization
+                .afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+    }
+
+    private static void rollBackTransaction() {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(synchronization -> synchronization
+                .afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+    }
+
+}
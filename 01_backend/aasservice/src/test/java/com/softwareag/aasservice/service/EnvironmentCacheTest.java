@@ -0,0 +1,115 @@
+/**
+*	Copyright 2025 Software GmbH (previously Software AG)
+*    
+*    Licensed under the Apache License, Version 2.0 (the "License");
+*    you may not use this file except in compliance with the License.
+*    You may obtain a copy of the License at
+*    
+*      http://www.apache.org/licenses/LICENSE-2.0
+*    
+*    Unless required by applicable law or agreed to in writing, software
+*   distributed under the License is distributed on an "AS IS" BASIS,
+*    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+*    See the License for the specific language governing permissions and
+*    limitations under the License.
+*/
+
+package com.softwareag.aasservice.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+import org.eclipse.digitaltwin.aas4j.v3.model.Environment;
+import org.eclipse.digitaltwin.aas4j.v3.model.Property;
+import org.eclipse.digitaltwin.aas4j.v3.model.impl.DefaultSubmodel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.softwareag.aasservice.data.repositories.AASCodecs;
+import com.softwareag.aasservice.mysql.entity.AASUpload;
+
+/**
+ * Every lookup restores an environment of its own, so changing a restored
+ * environment does not change the cached one.
+ */
+class EnvironmentCacheTest {
+
+    private static final String ENVIRONMENT = "{"
+            + "\"assetAdministrationShells\":[{\"modelType\":\"AssetAdministrationShell\","
+            + "\"id\":\"https://example.com/aas\",\"idShort\":\"Pump\","
+            + "\"assetInformation\":{\"assetKind\":\"Instance\",\"globalAssetId\":\"https://example.com/asset\"}}],"
+            + "\"submodels\":[{\"modelType\":\"Submodel\",\"id\":\"https://example.com/sm/nameplate\","
+            + "\"idShort\":\"Nameplate\",\"submodelElements\":["
+            + "{\"modelType\":\"Property\",\"idShort\":\"SerialNumber\",\"valueType\":\"xs:string\","
+            + "\"value\":\"4711\"}]}]}";
+
+    private EnvironmentCache cache;
+    private AASUpload upload;
+
+    @BeforeEach
+    void setUp() {
+        cache = new EnvironmentCache();
+        ReflectionTestUtils.setField(cache, "maxBytes", 1L << 20);
+
+        upload = new AASUpload();
+        upload.setId(1L);
+        upload.setAssetId("https://example.com/aas");
+        upload.setLastEditDate(new Date(1000));
+    }
+
+    @Test
+    void changesOfLazyEnvironmentDoNotChangeCache() throws Exception {
+        cache.put(upload, new EnvironmentService(LazyEnvironment.read(AASCodecs.JSON_MAPPER,
+                new ByteArrayInputStream(ENVIRONMENT.getBytes(StandardCharsets.UTF_8)))));
+
+        change(cache.get(upload));
+
+        assertUnchanged(cache.get(upload));
+    }
+
+    @Test
+    void changesOfDeserializedEnvironmentDoNotChangeCache() throws Exception {
+        EnvironmentService environmentService = new EnvironmentService(
+                AASCodecs.JSON_MAPPER.readValue(ENVIRONMENT, Environment.class));
+        cache.put(upload, environmentService);
+
+        // neither the environment which was put nor a restored one changes the cache
+        change(environmentService);
+        change(cache.get(upload));
+
+        assertUnchanged(cache.get(upload));
+    }
+
+    @Test
+    void missesChangedUpload() throws Exception {
+        cache.put(upload, new EnvironmentService(AASCodecs.JSON_MAPPER.readValue(ENVIRONMENT, Environment.class)));
+        upload.setLastEditDate(new Date(2000));
+
+        assertNull(cache.get(upload));
+    }
+
+    private static void change(EnvironmentService environmentService) {
+        ((Property) environmentService.getSubmodelOfIdShort("Nameplate").getSubmodelElements().get(0))
+                .setValue("0815");
+        environmentService.getAssetAdministrationShells().get(0).setIdShort("Valve");
+        environmentService.getSubmodels().add(new DefaultSubmodel.Builder()
+                .id("https://example.com/sm/other")
+                .idShort("Other")
+                .build());
+    }
+
+    private static void assertUnchanged(EnvironmentService environmentService) {
+        assertNotNull(environmentService);
+        assertEquals("Pump", environmentService.getAssetAdministrationShells().get(0).getIdShort());
+        assertEquals(1, environmentService.getSubmodels().size());
+        assertEquals("4711", ((Property) environmentService.getSubmodelOfIdShort("Nameplate")
+                .getSubmodelElements().get(0)).getValue());
+    }
+
+}
@@ -0,0 +1,139 @@
+/**
+*	Copyright 2025 Software GmbH (previously Software AG)
+*    
+*    Licensed under the Apache License, Version 2.0 (the "License");
+*    you may not use this file except in compliance with the License.
+*    You may obtain a copy of the License at
+*    
+*      http://www.apache.org/licenses/LICENSE-2.0
+*    
+*    Unless required by applicable law or agreed to in writing, software
+*   distributed under the License is distributed on an "AS IS" BASIS,
+*    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+*    See the License for the specific language governing permissions and
+*    limitations under the License.
+*/
+
+package com.softwareag.aasservice.utils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Compares the filtered documents with the regular expression replacement the
+ * filter replaced.
+ */
+class EmptyTagFilterInputStreamTest {
+
+    private static final String EMPTY_TAG = "<[^>/]+\\s*/>";
+
+    @Test
+    void removesEmptyTags() throws IOException {
+        assertFiltered("<a><b></b></a>", "<a><b/><c x=\"1\"/><b></b></a>");
+        assertFiltered("<value>x</value>", "<value>x</value><value xml:lang=\"en\" />");
+    }
+
+    @Test
+    void keepsTagsWhichAreNotEmpty() throws IOException {
+        for (String xml : new String[] { "</>", "<a//>", "<a/ >", "<a/<b/>", "<<a/>", "a<", "<a", "<a/", "<>/>",
+                "<?xml version=\"1.0\"?><a>&lt;/&gt;</a>", "<a>äö/ü<b/>€</a>" })
+            assertFiltered(xml.replaceAll(EMPTY_TAG, ""), xml);
+    }
+
+    @Test
+    void matchesRegularExpressionOnRandomDocuments() throws IOException {
+        Random random = new Random(42);
+        char[] alphabet = { '<', '>', '/', ' ', '\n', 'a', 'b', '"', '=', 'ä', '€' };
+        for (int i = 0; i < 2000; i++) {
+            StringBuilder xml = new StringBuilder();
+            int length = random.nextInt(i < 1990 ? 64 : 20000);
+            for (int j = 0; j < length; j++)
+                xml.append(alphabet[random.nextInt(alphabet.length)]);
+
+            String document = xml.toString();
+            assertFiltered(document.replaceAll(EMPTY_TAG, ""), document);
+        }
+    }
+
+    @Test
+    void keepsLongTags() throws IOException {
+        String attribute = "x=\"" + "a".repeat(20000) + "\"";
+        assertFiltered("<b " + attribute + "></b>", "<a " + attribute + "/><b " + attribute + "></b>");
+    }
+
+    @Test
+    void returnsDeclaredEncoding() throws IOException {
+        String xml = "<?xml version=\"1.0\" encoding='ISO-8859-1'?><a>ä<b/></a>";
+        EmptyTagFilterInputStream in = new EmptyTagFilterInputStream(
+                new ByteArrayInputStream(xml.getBytes(StandardCharsets.ISO_8859_1)));
+
+        assertEquals(StandardCharsets.ISO_8859_1, in.getCharset());
+        assertEquals("<?xml version=\"1.0\" encoding='ISO-8859-1'?><a>ä</a>",
+                new String(in.readAllBytes(), StandardCharsets.ISO_8859_1));
+    }
+
+    @Test
+    void defaultsToUtf8() throws IOException {
+        assertEquals(StandardCharsets.UTF_8, charsetOf("<a/>".getBytes(StandardCharsets.UTF_8)));
+        assertEquals(StandardCharsets.UTF_8,
+                charsetOf("\uFEFF<?xml version=\"1.0\" encoding=\"utf-8\"?><a/>".getBytes(StandardCharsets.UTF_8)));
+        assertEquals(StandardCharsets.UTF_8, charsetOf(new byte[0]));
+    }
+
+    @Test
+    void rejectsOtherEncodings() {
+        assertThrows(UnsupportedEncodingException.class,
+                () -> charsetOf("<?xml version=\"1.0\"?><a/>".getBytes(StandardCharsets.UTF_16)));
+        assertThrows(UnsupportedEncodingException.class,
+                () -> charsetOf("<?xml version=\"1.0\"?><a/>".getBytes(StandardCharsets.UTF_16LE)));
+        assertThrows(UnsupportedEncodingException.class,
+                () -> charsetOf("<?xml version=\"1.0\" encoding=\"Shift_JIS\"?><a/>".getBytes(StandardCharsets.US_ASCII)));
+        assertThrows(UnsupportedEncodingException.class,
+                () -> charsetOf("<?xml version=\"1.0\" encoding=\"unknown\"?><a/>".getBytes(StandardCharsets.US_ASCII)));
+        assertThrows(UnsupportedEncodingException.class, () -> new EmptyTagFilterInputStream(
+                new ByteArrayInputStream("<a/>".getBytes(StandardCharsets.UTF_16))).read());
+    }
+
+    private static Charset charsetOf(byte[] xml) throws IOException {
+        return new EmptyTagFilterInputStream(new ByteArrayInputStream(xml)).getCharset();
+    }
+
+    private static void assertFiltered(String expected, String xml) throws IOException {
+        byte[] bytes = xml.getBytes(StandardCharsets.UTF_8);
+        assertArrayEquals(expected.getBytes(StandardCharsets.UTF_8),
+                new EmptyTagFilterInputStream(new ByteArrayInputStream(bytes)).readAllBytes(), xml);
+
+        // the input arrives and is read in small chunks
+        InputStream filter = new EmptyTagFilterInputStream(new TricklingInputStream(bytes));
+        byte[] filtered = new byte[bytes.length + 1];
+        int length = 0;
+        for (int count; (count = filter.read(filtered, length, Math.min(3, filtered.length - length))) != -1;)
+            length += count;
+        assertEquals(expected, new String(filtered, 0, length, StandardCharsets.UTF_8), xml);
+    }
+
+    private static class TricklingInputStream extends ByteArrayInputStream {
+
+        TricklingInputStream(byte[] bytes) {
+            super(bytes);
+        }
+
+        @Override
+        public synchronized int read(byte[] bytes, int offset, int length) {
+            return super.read(bytes, offset, Math.min(length, 2));
+        }
+
+    }
+
+}
@@ -0,0 +1,180 @@
+/**
+*	Copyright 2025 Software GmbH (previously Software AG)
+*    
+*    Licensed under the Apache License, Version 2.0 (the "License");
+*    you may not use this file except in compliance with the License.
+*    You may obtain a copy of the License at
+*    
+*      http://www.apache.org/licenses/LICENSE-2.0
+*    
+*    Unless required by applicable law or agreed to in writing, software
+*   distributed under the License is distributed on an "AS IS" BASIS,
+*    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+*    See the License for the specific language governing permissions and
+*    limitations under the License.
+*/
+
+package com.softwareag.aasservice.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.LinkedHashMap;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Round trips of environments through flatten, diff, apply and unflatten. The
+ * delta is written and read again in between, as it is stored.
+ */
+class EnvironmentDiffTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final String ENVIRONMENT = "{"
+            + "\"assetAdministrationShells\":[{\"id\":\"https://example.com/aas\",\"idShort\":\"Pump\"}],"
+            + "\"submodels\":[{\"id\":\"https://example.com/sm/nameplate\",\"idShort\":\"Nameplate\","
+            + "\"submodelElements\":["
+            + "{\"modelType\":\"Property\",\"idShort\":\"SerialNumber\",\"value\":\"4711\"},"
+            + "{\"modelType\":\"SubmodelElementCollection\",\"idShort\":\"ContactInformation\",\"value\":["
+            + "{\"modelType\":\"Property\",\"idShort\":\"Phone\",\"value\":\"+49 123\"},"
+            + "{\"modelType\":\"Property\",\"idShort\":\"Email\",\"value\":\"info@example.com\"}]},"
+            + "{\"modelType\":\"SubmodelElementList\",\"idShort\":\"Markings\",\"value\":["
+            + "{\"modelType\":\"Property\",\"value\":\"CE\"},"
+            + "{\"modelType\":\"Property\",\"value\":\"RoHS\"}]}]}]}";
+
+    @Test
+    void unchangedEnvironmentHasEmptyDelta() throws Exception {
+        JsonNode delta = EnvironmentDiff.diff(flatten(ENVIRONMENT), flatten(ENVIRONMENT));
+
+        assertTrue(EnvironmentDiff.isEmpty(delta));
+        assertRoundTrip(ENVIRONMENT, ENVIRONMENT);
+    }
+
+    @Test
+    void flattenAndUnflattenKeepEnvironment() throws Exception {
+        assertEquals(MAPPER.readTree(ENVIRONMENT), EnvironmentDiff.unflatten(flatten(ENVIRONMENT)));
+    }
+
+    @Test
+    void changedElement() throws Exception {
+        String changed = ENVIRONMENT.replace("+49 123", "+49 456");
+
+        JsonNode delta = EnvironmentDiff.diff(flatten(ENVIRONMENT), flatten(changed));
+
+        assertEquals(1, delta.get("put").size());
+        assertFalse(delta.has("order"));
+        assertRoundTrip(ENVIRONMENT, changed);
+    }
+
+    @Test
+    void addedElement() throws Exception {
+        assertRoundTrip(ENVIRONMENT, ENVIRONMENT.replace("{\"modelType\":\"Property\",\"idShort\":\"Email\"",
+                "{\"modelType\":\"Property\",\"idShort\":\"Fax\",\"value\":\"+49 789\"},"
+                        + "{\"modelType\":\"Property\",\"idShort\":\"Email\""));
+    }
+
+    @Test
+    void removedElement() throws Exception {
+        String removed = ENVIRONMENT.replace(
+                "{\"modelType\":\"Property\",\"idShort\":\"Phone\",\"value\":\"+49 123\"},", "");
+
+        JsonNode delta = EnvironmentDiff.diff(flatten(ENVIRONMENT), flatten(removed));
+
+        assertTrue(delta.get("put").isEmpty());
+        assertRoundTrip(ENVIRONMENT, removed);
+    }
+
+    @Test
+    void removedCollectionWithItsElements() throws Exception {
+        assertRoundTrip(ENVIRONMENT, ENVIRONMENT.replaceAll(
+                "\\{\"modelType\":\"SubmodelElementCollection\".*?\\]\\},", ""));
+    }
+
+    @Test
+    void addedAndRemovedSubmodel() throws Exception {
+        String added = ENVIRONMENT.substring(0, ENVIRONMENT.length() - 2)
+                + ",{\"id\":\"https://example.com/sm/technical-data\",\"idShort\":\"TechnicalData\","
+                + "\"submodelElements\":[{\"modelType\":\"Property\",\"idShort\":\"Weight\",\"value\":\"12\"}]}]}";
+
+        assertRoundTrip(ENVIRONMENT, added);
+        assertRoundTrip(added, ENVIRONMENT);
+    }
+
+    @Test
+    void reorderedElements() throws Exception {
+        String reordered = ENVIRONMENT.replace(
+                "{\"modelType\":\"Property\",\"idShort\":\"Phone\",\"value\":\"+49 123\"},"
+                        + "{\"modelType\":\"Property\",\"idShort\":\"Email\",\"value\":\"info@example.com\"}",
+                "{\"modelType\":\"Property\",\"idShort\":\"Email\",\"value\":\"info@example.com\"},"
+                        + "{\"modelType\":\"Property\",\"idShort\":\"Phone\",\"value\":\"+49 123\"}");
+
+        JsonNode delta = EnvironmentDiff.diff(flatten(ENVIRONMENT), flatten(reordered));
+
+        assertTrue(delta.get("put").isEmpty());
+        assertTrue(delta.has("order"));
+        assertRoundTrip(ENVIRONMENT, reordered);
+    }
+
+    @Test
+    void orderedListWithInsertedFirstItem() throws Exception {
+        assertRoundTrip(ENVIRONMENT, ENVIRONMENT.replace("{\"modelType\":\"Property\",\"value\":\"CE\"}",
+                "{\"modelType\":\"Property\",\"value\":\"UKCA\"},{\"modelType\":\"Property\",\"value\":\"CE\"}"));
+    }
+
+    @Test
+    void orderedListWithRemovedFirstItem() throws Exception {
+        assertRoundTrip(ENVIRONMENT, ENVIRONMENT.replace("{\"modelType\":\"Property\",\"value\":\"CE\"},", ""));
+    }
+
+    @Test
+    void orderedListWithSwappedItems() throws Exception {
+        assertRoundTrip(ENVIRONMENT, ENVIRONMENT.replace(
+                "{\"modelType\":\"Property\",\"value\":\"CE\"},{\"modelType\":\"Property\",\"value\":\"RoHS\"}",
+                "{\"modelType\":\"Property\",\"value\":\"RoHS\"},{\"modelType\":\"Property\",\"value\":\"CE\"}"));
+    }
+
+    @Test
+    void duplicateIdShortsAndEscapedIds() throws Exception {
+        String duplicates = ENVIRONMENT.replace("\"idShort\":\"Email\"", "\"idShort\":\"Phone\"")
+                .replace("https://example.com/sm/nameplate", "https://example.com/sm/name~plate");
+
+        assertRoundTrip(ENVIRONMENT, duplicates);
+        assertRoundTrip(duplicates, ENVIRONMENT);
+    }
+
+    @Test
+    void chainedDeltas() throws Exception {
+        String first = ENVIRONMENT.replace("4711", "4712");
+        String second = first.replace("{\"modelType\":\"Property\",\"value\":\"CE\"},", "");
+
+        LinkedHashMap<String, JsonNode> state = flatten(ENVIRONMENT);
+        state = EnvironmentDiff.apply(state, store(EnvironmentDiff.diff(flatten(ENVIRONMENT), flatten(first))));
+        state = EnvironmentDiff.apply(state, store(EnvironmentDiff.diff(flatten(first), flatten(second))));
+
+        assertEquals(MAPPER.readTree(second), EnvironmentDiff.unflatten(state));
+    }
+
+    private static void assertRoundTrip(String from, String to) throws Exception {
+        JsonNode delta = store(EnvironmentDiff.diff(flatten(from), flatten(to)));
+
+        ObjectNode result = EnvironmentDiff.unflatten(EnvironmentDiff.apply(flatten(from), delta));
+
+        assertEquals(MAPPER.readTree(to), result);
+    }
+
+    private static LinkedHashMap<String, JsonNode> flatten(String environment) throws Exception {
+        return EnvironmentDiff.flatten((ObjectNode) MAPPER.readTree(environment));
+    }
+
+    // the delta is stored as bytes
+    private static JsonNode store(JsonNode delta) throws Exception {
+        return MAPPER.readTree(MAPPER.writeValueAsBytes(delta));
+    }
+
+}
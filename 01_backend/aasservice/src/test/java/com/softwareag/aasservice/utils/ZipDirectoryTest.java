@@ -0,0 +1,176 @@
+/**
+*	Copyright 2025 Software GmbH (previously Software AG)
+*    
+*    Licensed under the Apache License, Version 2.0 (the "License");
+*    you may not use this file except in compliance with the License.
+*    You may obtain a copy of the License at
+*    
+*      http://www.apache.org/licenses/LICENSE-2.0
+*    
+*    Unless required by applicable law or agreed to in writing, software
+*   distributed under the License is distributed on an "AS IS" BASIS,
+*    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+*    See the License for the specific language governing permissions and
+*    limitations under the License.
+*/
+
+package com.softwareag.aasservice.utils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Reads zip files written by java.util.zip and compares the entries with the
+ * ones its ZipInputStream reads.
+ */
+class ZipDirectoryTest {
+
+    @Test
+    void readsStoredAndDeflatedEntries() throws IOException {
+        Map<String, byte[]> files = new LinkedHashMap<>();
+        files.put("[Content_Types].xml", "<Types/>".getBytes(StandardCharsets.UTF_8));
+        files.put("aasx/files/empty.txt", new byte[0]);
+        files.put("aasx/files/Datenblatt Größe.pdf", randomBytes(1, 70000));
+        files.put("aasx/files/manual.pdf", randomBytes(2, 1 << 20));
+        files.put("aasx/files/text.txt", "text ".repeat(100000).getBytes(StandardCharsets.UTF_8));
+        byte[] zip = write(files, true);
+
+        for (ByteBuffer buffer : List.of(ByteBuffer.wrap(zip), direct(zip))) {
+            ZipDirectory directory = ZipDirectory.read(buffer);
+
+            assertEquals(new ArrayList<>(files.keySet()), names(directory));
+            for (Map.Entry<String, byte[]> file : files.entrySet()) {
+                ZipDirectory.Entry entry = directory.getEntry(file.getKey());
+                assertEquals((long) file.getValue().length, entry.getSize());
+                assertArrayEquals(file.getValue(), readAll(directory, entry), file.getKey());
+            }
+            assertEntries(readWithZipInputStream(zip), directory);
+        }
+    }
+
+    @Test
+    void reportsHeapSize() throws IOException {
+        byte[] zip = write(Map.of("a.txt", new byte[10]), false);
+
+        assertEquals((long) zip.length, ZipDirectory.read(ByteBuffer.wrap(zip)).getHeapSize());
+        assertEquals(0L, ZipDirectory.read(direct(zip)).getHeapSize());
+    }
+
+    @Test
+    void skipsDirectoriesAndReadsFromPosition() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(new byte[] { 1, 2, 3 });
+        try (ZipOutputStream zip = new ZipOutputStream(out)) {
+            zip.putNextEntry(new ZipEntry("aasx/"));
+            zip.putNextEntry(new ZipEntry("aasx/a.txt"));
+            zip.write("a".getBytes(StandardCharsets.UTF_8));
+            zip.setComment("A comment after the central directory.");
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(out.toByteArray());
+        buffer.position(3);
+        ZipDirectory directory = ZipDirectory.read(buffer);
+
+        assertEquals(List.of("aasx/a.txt"), names(directory));
+        assertNull(directory.getEntry("aasx/"));
+        assertArrayEquals("a".getBytes(StandardCharsets.UTF_8),
+                readAll(directory, directory.getEntry("aasx/a.txt")), "aasx/a.txt");
+    }
+
+    @Test
+    void rejectsInvalidZipFiles() throws IOException {
+        byte[] zip = write(Map.of("a.txt", randomBytes(3, 1000)), false);
+
+        assertThrows(ZipException.class, () -> ZipDirectory.read(ByteBuffer.wrap(new byte[100])));
+        assertThrows(ZipException.class, () -> ZipDirectory.read(ByteBuffer.wrap(new byte[0])));
+        assertThrows(ZipException.class,
+                () -> ZipDirectory.read(ByteBuffer.wrap(Arrays.copyOfRange(zip, 100, zip.length))));
+
+        // the central directory is intact, the local header of the entry not
+        byte[] corrupted = zip.clone();
+        Arrays.fill(corrupted, 0, 4, (byte) 0);
+        ZipDirectory directory = ZipDirectory.read(ByteBuffer.wrap(corrupted));
+        assertThrows(ZipException.class, () -> directory.open(directory.getEntry("a.txt")));
+    }
+
+    private static byte[] write(Map<String, byte[]> files, boolean storeSome) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(out)) {
+            int i = 0;
+            for (Map.Entry<String, byte[]> file : files.entrySet()) {
+                ZipEntry entry = new ZipEntry(file.getKey());
+                if (storeSome && i++ % 2 == 1) {
+                    CRC32 crc = new CRC32();
+                    crc.update(file.getValue());
+                    entry.setMethod(ZipEntry.STORED);
+                    entry.setSize(file.getValue().length);
+                    entry.setCrc(crc.getValue());
+                }
+                zip.putNextEntry(entry);
+                zip.write(file.getValue());
+            }
+        }
+        return out.toByteArray();
+    }
+
+    // the entries in the order and with the content java.util.zip reads them
+    private static void assertEntries(Map<String, byte[]> expected, ZipDirectory directory) throws IOException {
+        assertEquals(new ArrayList<>(expected.keySet()), names(directory));
+        for (Map.Entry<String, byte[]> file : expected.entrySet())
+            assertArrayEquals(file.getValue(), readAll(directory, directory.getEntry(file.getKey())), file.getKey());
+    }
+
+    private static Map<String, byte[]> readWithZipInputStream(byte[] zip) throws IOException {
+        Map<String, byte[]> files = new LinkedHashMap<>();
+        try (ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(zip))) {
+            for (ZipEntry entry; (entry = in.getNextEntry()) != null;)
+                files.put(entry.getName(), in.readAllBytes());
+        }
+        return files;
+    }
+
+    private static List<String> names(ZipDirectory directory) {
+        return directory.getEntries().stream().map(ZipDirectory.Entry::getName).toList();
+    }
+
+    private static byte[] readAll(ZipDirectory directory, ZipDirectory.Entry entry) throws IOException {
+        try (InputStream in = directory.open(entry)) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static ByteBuffer direct(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+        buffer.put(bytes).flip();
+        return buffer;
+    }
+
+    private static byte[] randomBytes(long seed, int length) {
+        byte[] bytes = new byte[length];
+        new Random(seed).nextBytes(bytes);
+        return bytes;
+    }
+
+}
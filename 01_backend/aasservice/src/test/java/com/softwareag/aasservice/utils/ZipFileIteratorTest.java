@@ -0,0 +1,87 @@
+/**
+*	Copyright 2025 Software GmbH (previously Software AG)
+*    
+*    Licensed under the Apache License, Version 2.0 (the "License");
+*    you may not use this file except in compliance with the License.
+*    You may obtain a copy of the License at
+*    
+*      http://www.apache.org/licenses/LICENSE-2.0
+*    
+*    Unless required by applicable law or agreed to in writing, software
+*   distributed under the License is distributed on an "AS IS" BASIS,
+*    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+*    See the License for the specific language governing permissions and
+*    limitations under the License.
+*/
+
+package com.softwareag.aasservice.utils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.Test;
+
+import com.softwareag.aasservice.data.BulkUploadFile;
+
+/**
+ * Entries up to the maximum file size are read, larger ones are skipped
+ * without data, whether the zip declares their size or not.
+ */
+class ZipFileIteratorTest {
+
+    private static final int MAX_FILE_SIZE = 1024;
+
+    private static final byte[] SMALL = "{\"assetAdministrationShells\":[]}".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    void readsFilesUpToMaxFileSize() throws IOException {
+        ZipFileIterator files = new ZipFileIterator(
+                new ByteArrayInputStream(zip(new byte[MAX_FILE_SIZE], SMALL)), MAX_FILE_SIZE);
+
+        assertEquals(MAX_FILE_SIZE, files.next().getData().length);
+        BulkUploadFile file = files.next();
+        assertEquals("small.json", file.getName());
+        assertArrayEquals(SMALL, file.getData());
+        assertFalse(files.hasNext());
+    }
+
+    @Test
+    void skipsLargerFiles() throws IOException {
+        // a deflated entry of zeros, whose size is only known after it was read
+        ZipFileIterator files = new ZipFileIterator(
+                new ByteArrayInputStream(zip(new byte[16 * 1024 * 1024], SMALL)), MAX_FILE_SIZE);
+
+        BulkUploadFile file = files.next();
+        assertEquals("large.json", file.getName());
+        assertTrue(file.exceedsMaxFileSize());
+        assertNull(file.getData());
+        assertArrayEquals(SMALL, files.next().getData());
+        assertFalse(files.hasNext());
+    }
+
+    private static byte[] zip(byte[] large, byte[] small) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ZipOutputStream zipOutputStream = new ZipOutputStream(out)) {
+            zipOutputStream.putNextEntry(new ZipEntry("dir/"));
+            zipOutputStream.closeEntry();
+            zipOutputStream.putNextEntry(new ZipEntry("dir/large.json"));
+            zipOutputStream.write(large);
+            zipOutputStream.closeEntry();
+            zipOutputStream.putNextEntry(new ZipEntry("small.json"));
+            zipOutputStream.write(small);
+            zipOutputStream.closeEntry();
+        }
+        return out.toByteArray();
+    }
+
+}